@@ -0,0 +1,65 @@
+package com.example.ecodb.security;
+
+import com.example.ecodb.Model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a request that carries a bearer token the server has seen before.
+ * verifyEveryRequest is the filter before verified tokens were cached: the signing key and parser
+ * are built per call and the token is parsed for the username, for validation and for the claims.
+ * cachedPrincipal is the current JwtTokenProvider path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-that-is-at-least-32-characters";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 3_600_000L, 10_000L);
+        UserPrincipal principal = new UserPrincipal(1L, "customer@example.com", User.Role.ROLE_Customer,
+                1L, null, 0, null, null, null);
+        token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        jwtTokenProvider.getPrincipal(token);
+    }
+
+    @Benchmark
+    public Claims verifyEveryRequest() {
+        String username = parse(token).getSubject();
+        if (username == null || parse(token).getExpiration() == null) {
+            throw new IllegalStateException("Token has no subject");
+        }
+        return parse(token);
+    }
+
+    @Benchmark
+    public UserPrincipal cachedPrincipal() {
+        return jwtTokenProvider.getPrincipal(token);
+    }
+
+    private static Claims parse(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
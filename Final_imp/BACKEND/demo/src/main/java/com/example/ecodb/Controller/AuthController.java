@@ -6,6 +6,8 @@ import com.example.ecodb.dto.request.RegisterRequest;
 import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.JwtResponse;
 import com.example.ecodb.dto.response.UserResponse;
+import com.example.ecodb.security.LoginRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,7 @@ public class AuthController {
 
     private final AuthService authService;
     private final PasswordEncoder passwordEncoder;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<UserResponse> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
@@ -28,10 +31,18 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> loginUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<JwtResponse> loginUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                 HttpServletRequest request) {
+        // Rejected before any password hashing is done
+        loginRateLimiter.acquire(request.getRemoteAddr(), loginRequest.getEmail());
         return ResponseEntity.ok(authService.loginUser(loginRequest));
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logoutUser() {
+        return ResponseEntity.ok(authService.logout());
+    }
+
     @GetMapping("/me")
     public ResponseEntity<UserResponse> getCurrentUser() {
         return ResponseEntity.ok(authService.getCurrentUser());
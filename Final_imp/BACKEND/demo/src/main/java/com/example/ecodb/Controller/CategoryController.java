@@ -1,16 +1,20 @@
 package com.example.ecodb.Controller;
 
 import com.example.ecodb.Service.CategoryService;
+import com.example.ecodb.cache.CategorySnapshot;
 import com.example.ecodb.dto.request.CategoryRequest;
 import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.CategoryResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -18,6 +22,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoryController {
 
+    // Categories change rarely; clients and the CDN revalidate with the ETag after this
+    private static final CacheControl CATEGORY_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
     private final CategoryService categoryService;
 
     @PostMapping
@@ -32,8 +39,21 @@ public class CategoryController {
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryResponse>> getAllCategories(WebRequest webRequest) {
+        CategorySnapshot snapshot = categoryService.getCategorySnapshot();
+        
+        // Answer with 304 when the client already has this snapshot
+        if (webRequest.checkNotModified(snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .cacheControl(CATEGORY_CACHE_CONTROL)
+                    .build();
+        }
+        
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CATEGORY_CACHE_CONTROL)
+                .body(snapshot.getCategories());
     }
 
     @PutMapping("/{id}")
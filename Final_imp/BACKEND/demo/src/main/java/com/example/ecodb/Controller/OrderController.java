@@ -6,7 +6,11 @@ import com.example.ecodb.dto.request.FrontendOrderRequest;
 import com.example.ecodb.dto.request.OrderRequest;
 import com.example.ecodb.dto.request.OrderStatusUpdateRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
 import com.example.ecodb.dto.response.OrderResponse;
+import com.example.ecodb.export.ExportFormat;
+import com.example.ecodb.idempotency.IdempotencyService;
+import jakarta.servlet.http.HttpServletResponse;
 import com.example.ecodb.util.AppConstants;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,11 +19,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -27,11 +33,26 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
-public class OrderController {    private final OrderService orderService;    @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody FrontendOrderRequest frontendOrderRequest) {
+public class OrderController {    private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+
+    @PostMapping
+    public ResponseEntity<OrderResponse> createOrder(
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody FrontendOrderRequest frontendOrderRequest) {
         try {
-            OrderResponse response = orderService.createOrderFromFrontend(frontendOrderRequest);
-            return new ResponseEntity<>(response, HttpStatus.CREATED);
+            if (idempotencyKey == null) {
+                OrderResponse response = orderService.createOrderFromFrontend(frontendOrderRequest);
+                return new ResponseEntity<>(response, HttpStatus.CREATED);
+            }
+
+            // A retried submission gets the original order back instead of placing a second one
+            IdempotencyService.Result<OrderResponse> result = idempotencyService.execute(idempotencyKey,
+                    frontendOrderRequest, OrderResponse.class,
+                    () -> orderService.createOrderFromFrontend(frontendOrderRequest));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.isReplayed()))
+                    .body(result.getResponse());
         } catch (Exception e) {
             // Log the exception for server-side debugging
             System.err.println("Error creating order: " + e.getMessage());
@@ -57,6 +78,13 @@ public class OrderController {    private final OrderService orderService;    @P
         return ResponseEntity.ok(orderService.getCurrentUserOrders(pageable));
     }
 
+    @GetMapping("/my-orders/scroll")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> scrollCurrentUserOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(orderService.scrollCurrentUserOrders(cursor, size));
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Page<OrderResponse>> getAllOrders(
@@ -84,6 +112,23 @@ public class OrderController {    private final OrderService orderService;    @P
         return ResponseEntity.ok(orderService.getOrdersByDateRange(startDate, endDate));
     }
 
+    // Streams the matching orders as NDJSON or CSV; every filter is optional
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + exportFormat.getExtension() + "\"");
+        orderService.exportOrders(exportFormat, status, startDate, endDate, response.getOutputStream());
+    }
+
     @PutMapping("/{orderId}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<OrderResponse> updateOrderStatus(
@@ -106,6 +151,14 @@ public class OrderController {    private final OrderService orderService;    @P
         return ResponseEntity.ok(Map.of("revenue", revenue));
     }
 
+    @GetMapping("/analytics/revenue-by-category")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<Long, Double>> calculateRevenueByCategory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        return ResponseEntity.ok(orderService.calculateRevenueByCategory(startDate, endDate));
+    }
+
     @GetMapping("/analytics/count")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Long>> countOrdersByDateRange(
@@ -1,8 +1,12 @@
 package com.example.ecodb.Controller;
 
 import com.example.ecodb.Service.ProductService;
+import com.example.ecodb.dto.request.ProductBrowseRequest;
 import com.example.ecodb.dto.request.ProductRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
+import com.example.ecodb.dto.response.ProductCardResponse;
+import com.example.ecodb.dto.response.ProductBrowseResponse;
 import com.example.ecodb.dto.response.ProductResponse;
 import com.example.ecodb.util.AppConstants;
 import lombok.RequiredArgsConstructor;
@@ -39,7 +43,7 @@ public class ProductController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<ProductResponse>> getAllProducts(
+    public ResponseEntity<Page<ProductCardResponse>> getAllProducts(
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER) int page,
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int size,
             @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY) String sortBy,
@@ -54,8 +58,15 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(pageable));
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<ProductResponse>> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(productService.scrollProducts(cursor, size));
+    }
+
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<ProductResponse>> getProductsByCategory(
+    public ResponseEntity<Page<ProductCardResponse>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER) int page,
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int size,
@@ -72,28 +83,69 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<ProductResponse>> searchProducts(
+    public ResponseEntity<Page<ProductCardResponse>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER) int page,
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = "relevance") String sortBy,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION) String sortDir) {
+        
+        // Relevance is the natural order of the search index, so it is requested as an unsorted page
+        Sort sort = sortBy.equalsIgnoreCase("relevance") ? Sort.unsorted() :
+                sortDir.equalsIgnoreCase("asc") ? 
+                Sort.by(sortBy).ascending() : 
+                Sort.by(sortBy).descending();
+        
+        Pageable pageable = PageRequest.of(page, size, sort);
+        
+        return ResponseEntity.ok(productService.searchProducts(keyword, pageable));
+    }
+
+    @GetMapping("/browse")
+    public ResponseEntity<ProductBrowseResponse> browseProducts(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) List<String> color,
+            @RequestParam(required = false) List<String> productSize,
+            @RequestParam(defaultValue = "true") Boolean available,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER) int page,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int size,
             @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY) String sortBy,
             @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION) String sortDir) {
         
+        ProductBrowseRequest browseRequest = ProductBrowseRequest.builder()
+                .categoryIds(categoryId)
+                .colors(color)
+                .sizes(productSize)
+                .available(available)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minRating(minRating)
+                .build();
+        
         Sort sort = sortDir.equalsIgnoreCase("asc") ? 
                 Sort.by(sortBy).ascending() : 
                 Sort.by(sortBy).descending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return ResponseEntity.ok(productService.searchProducts(keyword, pageable));
+        return ResponseEntity.ok(productService.browseProducts(browseRequest, pageable));
     }
 
     @GetMapping("/latest")
-    public ResponseEntity<List<ProductResponse>> getLatestProducts(
+    public ResponseEntity<List<ProductCardResponse>> getLatestProducts(
             @RequestParam(defaultValue = "10") int count) {
         return ResponseEntity.ok(productService.getLatestProducts(count));
     }
 
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> getProductCacheStats() {
+        return ResponseEntity.ok(productService.getProductCacheStats());
+    }
+
     @GetMapping("/low-in-stock")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<ProductResponse>> getProductsLowInStock(
@@ -3,6 +3,7 @@ package com.example.ecodb.Controller;
 import com.example.ecodb.Service.ReviewService;
 import com.example.ecodb.dto.request.ReviewRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
 import com.example.ecodb.dto.response.ReviewResponse;
 import com.example.ecodb.util.AppConstants;
 import jakarta.validation.Valid;
@@ -13,6 +14,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -47,6 +49,14 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.getProductReviews(productId, pageable));
     }
 
+    @GetMapping("/product/{productId}/scroll")
+    public ResponseEntity<CursorPageResponse<ReviewResponse>> scrollProductReviews(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(reviewService.scrollProductReviews(productId, cursor, size));
+    }
+
     @GetMapping("/my-reviews")
     public ResponseEntity<List<ReviewResponse>> getCurrentUserReviews() {
         return ResponseEntity.ok(reviewService.getCurrentUserReviews());
@@ -75,4 +85,10 @@ public class ReviewController {
     public ResponseEntity<ApiResponse> deleteReview(@PathVariable Long reviewId) {
         return ResponseEntity.ok(reviewService.deleteReview(reviewId));
     }
+
+    @PostMapping("/aggregates/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> rebuildRatingAggregates() {
+        return ResponseEntity.ok(reviewService.rebuildRatingAggregates());
+    }
 }
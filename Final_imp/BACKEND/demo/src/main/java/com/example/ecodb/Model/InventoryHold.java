@@ -0,0 +1,37 @@
+package com.example.ecodb.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Persisted copy of a cart stock hold so holds survive a restart; the live copy is in memory
+@Entity
+@Table(name = "inventory_hold",
+        uniqueConstraints = @UniqueConstraint(name = "uk_inventory_hold_product_customer",
+                columnNames = {"product_id", "customer_id"}),
+        indexes = @Index(name = "idx_inventory_hold_expires_at", columnList = "expires_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "hold_id")
+    private Long holdId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
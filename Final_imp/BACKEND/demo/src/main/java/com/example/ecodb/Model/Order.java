@@ -9,7 +9,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "sys_order")
+@Table(name = "sys_order", indexes = {
+        @Index(name = "idx_order_customer_created", columnList = "customer_id, creation_date, order_id"),
+        @Index(name = "idx_order_created", columnList = "creation_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,69 @@
+package com.example.ecodb.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+// Order totals for one hour or day, per payment status and category, maintained incrementally
+@Entity
+@Table(name = "order_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_order_rollup_bucket",
+                columnNames = {"granularity", "bucket_start", "payment_status", "category_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRollup {
+
+    // Category id of the rows holding the totals over all categories
+    public static final long ALL_CATEGORIES = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false, length = 20)
+    private Order.PaymentStatus paymentStatus;
+
+    // Orders with at least one line in the category, or all orders for ALL_CATEGORIES
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "items_sold", nullable = false)
+    private Long itemsSold;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        // Start of the bucket the time falls in
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+}
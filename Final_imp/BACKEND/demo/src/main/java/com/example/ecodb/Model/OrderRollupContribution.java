@@ -0,0 +1,26 @@
+package com.example.ecodb.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// What an order added to one category of its buckets when it was first counted
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRollupContribution {
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "items_sold", nullable = false)
+    private Long itemsSold;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
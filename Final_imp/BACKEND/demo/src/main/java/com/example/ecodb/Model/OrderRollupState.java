@@ -0,0 +1,32 @@
+package com.example.ecodb.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Payment status an order is currently counted under in the rollups, so updates can move it exactly once,
+// and what it added per category, so a move takes back exactly that even after a product changed category
+@Entity
+@Table(name = "order_rollup_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRollupState {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false, length = 20)
+    private Order.PaymentStatus paymentStatus;
+
+    @ElementCollection
+    @CollectionTable(name = "order_rollup_contribution", joinColumns = @JoinColumn(name = "order_id"))
+    @Builder.Default
+    private List<OrderRollupContribution> contributions = new ArrayList<>();
+}
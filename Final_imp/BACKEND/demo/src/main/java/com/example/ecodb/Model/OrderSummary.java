@@ -0,0 +1,48 @@
+package com.example.ecodb.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Denormalized copy of an order for order history pages, rewritten whenever the order changes
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_customer_created", columnList = "customer_id, creation_date, order_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummary {
+
+    // Same id as the order it describes
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "creation_date", nullable = false)
+    private LocalDateTime creationDate;
+
+    @Column(name = "total_price", nullable = false)
+    private Double totalPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", nullable = false)
+    private Order.OrderStatus orderStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false)
+    private Order.PaymentStatus paymentStatus;
+
+    // The order as served to the customer, lines and shipment included, in JSON
+    @Column(name = "document", nullable = false, columnDefinition = "TEXT")
+    private String document;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
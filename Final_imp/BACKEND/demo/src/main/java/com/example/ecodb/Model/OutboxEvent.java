@@ -0,0 +1,71 @@
+package com.example.ecodb.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Side effect recorded in the same transaction as the change that caused it, run later by the outbox dispatcher
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_status_next_attempt", columnList = "status, next_attempt_at, event_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private EventType eventType;
+
+    // Id of the entity the event is about, e.g. the order id
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public enum EventType {
+        CREATE_SHIPMENT, SEND_ORDER_CONFIRMATION, UPDATE_ORDER_ROLLUP
+    }
+
+    public enum Status {
+        PENDING, PROCESSED, FAILED
+    }
+
+    public static OutboxEvent of(EventType eventType, Long aggregateId) {
+        return OutboxEvent.builder()
+                .eventType(eventType)
+                .aggregateId(aggregateId)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
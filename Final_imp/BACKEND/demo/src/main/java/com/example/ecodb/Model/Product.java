@@ -2,7 +2,10 @@ package com.example.ecodb.Model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -11,12 +14,15 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_available_created", columnList = "is_available, creation_date, product_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 public class Product {
 
     @Id
@@ -49,6 +55,23 @@ public class Product {
     
     @Column(length = 50)
     private String color;
+
+    // Rating aggregates maintained incrementally by review writes; rows that predate them are
+    // backfilled on startup
+    @Column(name = "rating_sum")
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count")
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long ratingCount = 0L;
+
+    @Column(name = "recommended_count")
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long recommendedCount = 0L;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "admin_id", nullable = false)
@@ -56,7 +79,10 @@ public class Product {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
-    private Category category;    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    private Category category;
+
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @Builder.Default
     private List<ProductImage> images = new ArrayList<>();
 
@@ -163,6 +189,38 @@ public class Product {
         this.color = color;
     }
 
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(Long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public Long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(Long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public Long getRecommendedCount() {
+        return recommendedCount;
+    }
+
+    public void setRecommendedCount(Long recommendedCount) {
+        this.recommendedCount = recommendedCount;
+    }
+
+    // Average rating derived from the aggregates, null when the product has no reviews
+    public Double getAverageRating() {
+        if (ratingCount == null || ratingCount == 0 || ratingSum == null) {
+            return null;
+        }
+        return ratingSum.doubleValue() / ratingCount;
+    }
+
     public Admin getAdmin() {
         return admin;
     }
@@ -7,7 +7,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "product_review")
+@Table(name = "product_review", indexes = {
+        @Index(name = "idx_review_product_date", columnList = "product_id, review_date, review_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
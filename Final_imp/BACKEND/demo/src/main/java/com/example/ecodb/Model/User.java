@@ -44,7 +44,12 @@ public class User {
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
-    private Role role;    // Bidirectional relationships
+    private Role role;
+
+    // Bumped to invalidate every token issued before, e.g. on a password or email change
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer tokenVersion = 0;    // Bidirectional relationships
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<CreditCard> creditCards = new ArrayList<>();
@@ -123,6 +128,14 @@ public class User {
         this.role = role;
     }
 
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public List<CreditCard> getCreditCards() {
         return creditCards;
     }
@@ -0,0 +1,9 @@
+package com.example.ecodb.Repository;
+
+// Number of products in a category, as returned by ProductRepository.countProductsByCategory
+public interface CategoryProductCount {
+
+    Long getCategoryId();
+
+    Long getProductCount();
+}
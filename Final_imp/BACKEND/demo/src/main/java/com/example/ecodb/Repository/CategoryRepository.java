@@ -4,6 +4,7 @@ import com.example.ecodb.Model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +13,6 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByCategoryName(String categoryName);
     
     boolean existsByCategoryName(String categoryName);
+    
+    List<Category> findAllByOrderByCategoryIdAsc();
 }
@@ -0,0 +1,9 @@
+package com.example.ecodb.Repository;
+
+// Revenue of completed orders in a category, as returned by the analytics queries
+public interface CategoryRevenue {
+
+    Long getCategoryId();
+
+    Number getRevenue();
+}
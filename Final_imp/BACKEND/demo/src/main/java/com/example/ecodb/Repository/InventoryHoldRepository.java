@@ -0,0 +1,27 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.InventoryHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryHoldRepository extends JpaRepository<InventoryHold, Long> {
+
+    Optional<InventoryHold> findByProductIdAndCustomerId(Long productId, Long customerId);
+
+    List<InventoryHold> findByExpiresAtAfter(LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM InventoryHold h WHERE h.productId = :productId AND h.customerId = :customerId")
+    void deleteHold(Long productId, Long customerId);
+
+    @Modifying
+    @Query("DELETE FROM InventoryHold h WHERE h.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,48 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Order;
+
+import java.time.LocalDateTime;
+
+// One order line joined with its order, customer, address and shipment, as read by the admin export;
+// an order without items comes back once with the line fields null
+public interface OrderExportRecord {
+
+    Long getOrderId();
+
+    LocalDateTime getCreationDate();
+
+    Order.OrderStatus getOrderStatus();
+
+    Order.PaymentStatus getPaymentStatus();
+
+    Double getTotalPrice();
+
+    Long getCustomerId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    String getShippingStreet();
+
+    String getShippingCity();
+
+    String getShippingState();
+
+    String getShippingZipcode();
+
+    String getTrackingNumber();
+
+    Boolean getDelivered();
+
+    Long getProductId();
+
+    String getProductName();
+
+    Integer getQuantity();
+
+    Double getPriceAtPurchase();
+}
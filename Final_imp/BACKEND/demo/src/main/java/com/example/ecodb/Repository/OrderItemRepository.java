@@ -1,10 +1,13 @@
 package com.example.ecodb.Repository;
 
+import com.example.ecodb.Model.Order;
 import com.example.ecodb.Model.OrderItem;
 import com.example.ecodb.Model.OrderItemId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +16,11 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, OrderItemI
     List<OrderItem> findByOrderOrderId(Long orderId);
     
     List<OrderItem> findByProductProductId(Long productId);
+    
+    // Live category revenue for the part of a range the rollups do not cover
+    @Query("SELECT p.category.categoryId AS categoryId, SUM(i.priceAtPurchase * i.quantity) AS revenue " +
+           "FROM OrderItem i JOIN i.order o JOIN i.product p " +
+           "WHERE o.creationDate >= :from AND o.creationDate < :to AND o.paymentStatus = :paymentStatus " +
+           "GROUP BY p.category.categoryId")
+    List<CategoryRevenue> sumRevenueByCategoryBetween(LocalDateTime from, LocalDateTime to, Order.PaymentStatus paymentStatus);
 }
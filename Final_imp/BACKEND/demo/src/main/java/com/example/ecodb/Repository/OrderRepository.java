@@ -2,20 +2,46 @@ package com.example.ecodb.Repository;
 
 import com.example.ecodb.Model.Order;
 import com.example.ecodb.Model.Customer;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
     Page<Order> findByCustomerCustomerId(Long customerId, Pageable pageable);
     
+    // Keyset pages of a customer's orders, newest first
+    @EntityGraph(attributePaths = {"customer", "customer.user", "shippingAddress", "billingAddress", "shipment"})
+    @Query("SELECT o FROM Order o WHERE o.customer.customerId = :customerId " +
+           "ORDER BY o.creationDate DESC, o.orderId DESC")
+    List<Order> findCustomerOrdersFirstPage(Long customerId, Limit limit);
+    
+    @EntityGraph(attributePaths = {"customer", "customer.user", "shippingAddress", "billingAddress", "shipment"})
+    @Query("SELECT o FROM Order o WHERE o.customer.customerId = :customerId AND " +
+           "(o.creationDate < :creationDate OR (o.creationDate = :creationDate AND o.orderId < :orderId)) " +
+           "ORDER BY o.creationDate DESC, o.orderId DESC")
+    List<Order> findCustomerOrdersAfter(Long customerId, LocalDateTime creationDate, Long orderId, Limit limit);
+    
+    // Serializes writers of the same order so its summary is always rendered from the latest state
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId = :orderId")
+    Optional<Order> lockById(Long orderId);
+    
     List<Order> findByOrderStatus(Order.OrderStatus status);
     
     List<Order> findByPaymentStatus(Order.PaymentStatus status);
@@ -23,6 +49,35 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.creationDate BETWEEN :startDate AND :endDate")
     List<Order> findOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate);
     
+    // Forward-only cursor for exports: one flat row per order line, ordered so each order's lines are adjacent.
+    // Rows arrive in fetch-size chunks and no entity is loaded, so the whole export is a single statement
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT o.orderId AS orderId, o.creationDate AS creationDate, o.orderStatus AS orderStatus, " +
+           "o.paymentStatus AS paymentStatus, o.totalPrice AS totalPrice, c.customerId AS customerId, " +
+           "u.firstName AS firstName, u.lastName AS lastName, u.email AS email, " +
+           "a.street AS shippingStreet, a.city AS shippingCity, a.state AS shippingState, a.zipcode AS shippingZipcode, " +
+           "s.trackingNumber AS trackingNumber, s.isDelivered AS delivered, " +
+           "p.productId AS productId, p.productName AS productName, i.quantity AS quantity, " +
+           "i.priceAtPurchase AS priceAtPurchase " +
+           "FROM Order o JOIN o.customer c JOIN c.user u LEFT JOIN o.shippingAddress a LEFT JOIN o.shipment s " +
+           "LEFT JOIN o.orderItems i LEFT JOIN i.product p " +
+           "WHERE (:status IS NULL OR o.orderStatus = :status) AND " +
+           "(:startDate IS NULL OR o.creationDate >= :startDate) AND (:endDate IS NULL OR o.creationDate <= :endDate) " +
+           "ORDER BY o.orderId, p.productId")
+    Stream<OrderExportRecord> streamForExport(Order.OrderStatus status, LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Live totals for the part of a range the rollups do not cover; the end is exclusive
+    @Query("SELECT COALESCE(SUM(o.totalPrice), 0) FROM Order o " +
+           "WHERE o.creationDate >= :from AND o.creationDate < :to AND o.paymentStatus = :paymentStatus")
+    Double sumRevenueBetween(LocalDateTime from, LocalDateTime to, Order.PaymentStatus paymentStatus);
+    
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.creationDate >= :from AND o.creationDate < :to")
+    Long countCreatedBetween(LocalDateTime from, LocalDateTime to);
+    
     @Query("SELECT SUM(o.totalPrice) FROM Order o WHERE o.creationDate BETWEEN :startDate AND :endDate AND o.paymentStatus = 'Completed'")
     Double calculateRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate);
     
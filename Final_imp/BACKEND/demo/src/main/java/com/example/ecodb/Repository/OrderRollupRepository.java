@@ -0,0 +1,41 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long> {
+
+    // Applied in the database so concurrent updates of the same bucket never lose an increment
+    @Modifying
+    @Query("UPDATE OrderRollup r SET r.orderCount = r.orderCount + :orders, r.itemsSold = r.itemsSold + :items, " +
+           "r.revenue = r.revenue + :revenue WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart " +
+           "AND r.paymentStatus = :paymentStatus AND r.categoryId = :categoryId")
+    int addToBucket(OrderRollup.Granularity granularity, LocalDateTime bucketStart, Order.PaymentStatus paymentStatus,
+                    Long categoryId, long orders, long items, BigDecimal revenue);
+
+    @Query("SELECT COALESCE(SUM(r.revenue), 0) FROM OrderRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to AND r.paymentStatus = :paymentStatus " +
+           "AND r.categoryId = " + OrderRollup.ALL_CATEGORIES)
+    BigDecimal sumRevenue(OrderRollup.Granularity granularity, LocalDateTime from, LocalDateTime to,
+                          Order.PaymentStatus paymentStatus);
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) FROM OrderRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to AND r.categoryId = " + OrderRollup.ALL_CATEGORIES)
+    Long sumOrderCount(OrderRollup.Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT r.categoryId AS categoryId, SUM(r.revenue) AS revenue FROM OrderRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND r.paymentStatus = :paymentStatus AND r.categoryId <> " + OrderRollup.ALL_CATEGORIES +
+           " GROUP BY r.categoryId")
+    List<CategoryRevenue> sumRevenueByCategory(OrderRollup.Granularity granularity, LocalDateTime from,
+                                               LocalDateTime to, Order.PaymentStatus paymentStatus);
+}
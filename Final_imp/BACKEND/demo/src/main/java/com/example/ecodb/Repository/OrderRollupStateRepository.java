@@ -0,0 +1,18 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.OrderRollupState;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderRollupStateRepository extends JpaRepository<OrderRollupState, Long> {
+
+    // Orders not yet counted in the rollups, e.g. placed before they existed
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId > :afterOrderId AND " +
+           "NOT EXISTS (SELECT s.orderId FROM OrderRollupState s WHERE s.orderId = o.orderId) ORDER BY o.orderId")
+    List<Long> findOrderIdsWithoutState(Long afterOrderId, Limit limit);
+}
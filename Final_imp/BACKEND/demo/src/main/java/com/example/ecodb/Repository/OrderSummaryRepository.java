@@ -0,0 +1,33 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.OrderSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    Page<OrderSummary> findByCustomerId(Long customerId, Pageable pageable);
+
+    // Keyset pages of a customer's order history, newest first
+    @Query("SELECT s FROM OrderSummary s WHERE s.customerId = :customerId " +
+           "ORDER BY s.creationDate DESC, s.orderId DESC")
+    List<OrderSummary> findCustomerSummariesFirstPage(Long customerId, Limit limit);
+
+    @Query("SELECT s FROM OrderSummary s WHERE s.customerId = :customerId AND " +
+           "(s.creationDate < :creationDate OR (s.creationDate = :creationDate AND s.orderId < :orderId)) " +
+           "ORDER BY s.creationDate DESC, s.orderId DESC")
+    List<OrderSummary> findCustomerSummariesAfter(Long customerId, LocalDateTime creationDate, Long orderId, Limit limit);
+
+    // Orders placed before the read model existed
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId > :afterOrderId AND " +
+           "NOT EXISTS (SELECT s.orderId FROM OrderSummary s WHERE s.orderId = o.orderId) ORDER BY o.orderId")
+    List<Long> findOrderIdsWithoutSummary(Long afterOrderId, Limit limit);
+}
@@ -0,0 +1,29 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e.eventId FROM OutboxEvent e " +
+           "WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.eventId")
+    List<Long> findDueEventIds(OutboxEvent.Status status, LocalDateTime now, Limit limit);
+
+    // Lock timeout -2 is SKIP LOCKED: an event another instance is working on comes back empty
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.eventId = :eventId")
+    Optional<OutboxEvent> lockById(Long eventId);
+}
@@ -1,34 +1,128 @@
 package com.example.ecodb.Repository;
 
 import com.example.ecodb.Model.Product;
-import com.example.ecodb.Model.Category;
+import com.example.ecodb.dto.response.ProductCardResponse;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
     
-    Page<Product> findByIsAvailableTrue(Pageable pageable);
+    // Listing cards select only the columns they show; the image is the main one, else the first added
+    String CARD_SELECT = "SELECT new com.example.ecodb.dto.response.ProductCardResponse(" +
+           "p.productId, p.productName, p.price, p.category.categoryId, " +
+           "COALESCE((SELECT MIN(mi.imageUrl) FROM ProductImage mi WHERE mi.product = p AND mi.isMain = true), " +
+           "(SELECT fi.imageUrl FROM ProductImage fi WHERE fi.imageId = " +
+           "(SELECT MIN(ai.imageId) FROM ProductImage ai WHERE ai.product = p))), " +
+           "p.ratingSum, p.ratingCount, p.quantityInStock) ";
     
-    Page<Product> findByCategory(Category category, Pageable pageable);
+    @Query(value = CARD_SELECT + "FROM Product p WHERE p.isAvailable = true",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isAvailable = true")
+    Page<ProductCardResponse> findAvailableCards(Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE " +
+    @Query(value = CARD_SELECT + "FROM Product p WHERE p.category.categoryId = :categoryId",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.categoryId = :categoryId")
+    Page<ProductCardResponse> findCardsByCategoryId(Long categoryId, Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "FROM Product p WHERE " +
+           "p.isAvailable = true AND " +
+           "(LOWER(p.productName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE " +
            "p.isAvailable = true AND " +
            "(LOWER(p.productName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Product> searchProducts(String keyword, Pageable pageable);
+    Page<ProductCardResponse> searchCards(String keyword, Pageable pageable);
+    
+    @Query(CARD_SELECT + "FROM Product p WHERE p.productId IN :productIds")
+    List<ProductCardResponse> findCardsByProductIdIn(Collection<Long> productIds);
+    
+    @Query(CARD_SELECT + "FROM Product p ORDER BY p.creationDate DESC, p.productId DESC")
+    List<ProductCardResponse> findLatestCards(Limit limit);
+    
+    // Queries returning ProductResponse fetch its to-one associations in the same select;
+    // images are loaded in batches (see Product.images) so a page costs a constant number of queries.
+    // Keyset pages of available products, newest first, served by idx_product_available_created
+    @EntityGraph(attributePaths = {"category", "admin", "admin.user"})
+    @Query("SELECT p FROM Product p WHERE p.isAvailable = true " +
+           "ORDER BY p.creationDate DESC, p.productId DESC")
+    List<Product> findAvailableFirstPage(Limit limit);
+    
+    @EntityGraph(attributePaths = {"category", "admin", "admin.user"})
+    @Query("SELECT p FROM Product p WHERE p.isAvailable = true AND " +
+           "(p.creationDate < :creationDate OR (p.creationDate = :creationDate AND p.productId < :productId)) " +
+           "ORDER BY p.creationDate DESC, p.productId DESC")
+    List<Product> findAvailableAfter(LocalDateTime creationDate, Long productId, Limit limit);
+    
+    @Override
+    @EntityGraph(attributePaths = {"category", "admin", "admin.user"})
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"category", "admin", "admin.user", "images"})
+    Optional<Product> findDetailedByProductId(Long productId);
+    
+    @EntityGraph(attributePaths = {"category", "admin", "admin.user"})
+    List<Product> findByProductIdIn(Collection<Long> productIds);
+    
+    // Batches of products with the fields the in-memory indexes need, without a count query
+    @EntityGraph(attributePaths = {"category"})
+    @Query("SELECT p FROM Product p")
+    Slice<Product> findAllForIndexing(Pageable pageable);
     
     List<Product> findByCategoryCategoryIdAndIsAvailableTrue(Long categoryId);
     
-    List<Product> findTop10ByOrderByCreationDateDesc();
+    @EntityGraph(attributePaths = {"category"})
+    List<Product> findByCategoryCategoryId(Long categoryId);
+    
+    boolean existsByCategoryCategoryId(Long categoryId);
+    
+    @Query("SELECT p.category.categoryId AS categoryId, COUNT(p) AS productCount " +
+           "FROM Product p GROUP BY p.category.categoryId")
+    List<CategoryProductCount> countProductsByCategory();
     
+    @EntityGraph(attributePaths = {"category", "admin", "admin.user"})
     List<Product> findByAdminAdminId(Long adminId);
     
+    @EntityGraph(attributePaths = {"category", "admin", "admin.user"})
     @Query("SELECT p FROM Product p WHERE p.quantityInStock <= :threshold")
     List<Product> findProductsLowInStock(int threshold);
+    
+    @Modifying
+    @Query("UPDATE Product p SET " +
+           "p.ratingSum = COALESCE(p.ratingSum, 0) + :ratingDelta, " +
+           "p.ratingCount = COALESCE(p.ratingCount, 0) + :countDelta, " +
+           "p.recommendedCount = COALESCE(p.recommendedCount, 0) + :recommendedDelta " +
+           "WHERE p.productId = :productId")
+    int adjustRatingAggregates(Long productId, long ratingDelta, long countDelta, long recommendedDelta);
+    
+    @Query("SELECT p.productId AS productId, p.ratingSum AS ratingSum, p.ratingCount AS ratingCount, " +
+           "p.recommendedCount AS recommendedCount FROM Product p")
+    List<RatingAggregate> findAllRatingAggregates();
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.productId = :productId")
+    Optional<Product> lockById(Long productId);
+    
+    // Products whose aggregates were never filled in or do not count their reviews
+    @Query("SELECT p.productId FROM Product p WHERE p.productId > :afterProductId AND " +
+           "(p.ratingSum IS NULL OR p.ratingCount IS NULL OR p.recommendedCount IS NULL OR " +
+           "p.ratingCount <> (SELECT COUNT(r) FROM ProductReview r WHERE r.product = p)) ORDER BY p.productId")
+    List<Long> findProductIdsWithStaleRatingAggregates(Long afterProductId, Limit limit);
 }
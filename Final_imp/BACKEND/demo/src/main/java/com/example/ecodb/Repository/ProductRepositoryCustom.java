@@ -0,0 +1,19 @@
+package com.example.ecodb.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+// Stock updates issued as single conditional statements instead of read-modify-write on the entity
+public interface ProductRepositoryCustom {
+
+    // Decrements the stock of every product in one JDBC batch, only where enough stock is left.
+    // Returns the ids of the products that were short; the caller is expected to roll back.
+    List<Long> decrementStock(Map<Long, Integer> quantities);
+
+    // Same as above, but each product must also keep the given quantity on the shelf afterwards
+    // (stock held for other customers' carts)
+    List<Long> decrementStock(Map<Long, Integer> quantities, Map<Long, Integer> reserved);
+
+    // Returns stock to every product in one JDBC batch
+    void incrementStock(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,72 @@
+package com.example.ecodb.Repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE product SET quantity_in_stock = quantity_in_stock - ? " +
+            "WHERE product_id = ? AND quantity_in_stock >= ?";
+
+    private static final String INCREMENT_STOCK_SQL =
+            "UPDATE product SET quantity_in_stock = quantity_in_stock + ? WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        return decrementStock(quantities, Map.of());
+    }
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities, Map<Long, Integer> reserved) {
+        // Rows are updated in product id order so concurrent checkouts lock them in the same order
+        if (quantities.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Map.Entry<Long, Integer>> lines = sortedLines(quantities);
+        int[][] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue() + reserved.getOrDefault(line.getKey(), 0));
+        });
+
+        List<Long> shortProductIds = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int rows : batch) {
+                if (rows == 0) {
+                    shortProductIds.add(lines.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        return shortProductIds;
+    }
+
+    @Override
+    public void incrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Integer>> lines = sortedLines(quantities);
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+        });
+    }
+
+    private static List<Map.Entry<Long, Integer>> sortedLines(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        lines.sort(Map.Entry.comparingByKey());
+        return lines;
+    }
+}
@@ -1,19 +1,35 @@
 package com.example.ecodb.Repository;
 
 import com.example.ecodb.Model.ProductReview;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductReviewRepository extends JpaRepository<ProductReview, Long> {
     
     Page<ProductReview> findByProductProductId(Long productId, Pageable pageable);
     
+    // Keyset pages of a product's reviews, newest first
+    @EntityGraph(attributePaths = {"product", "customer", "customer.user"})
+    @Query("SELECT r FROM ProductReview r WHERE r.product.productId = :productId " +
+           "ORDER BY r.reviewDate DESC, r.reviewId DESC")
+    List<ProductReview> findProductReviewsFirstPage(Long productId, Limit limit);
+    
+    @EntityGraph(attributePaths = {"product", "customer", "customer.user"})
+    @Query("SELECT r FROM ProductReview r WHERE r.product.productId = :productId AND " +
+           "(r.reviewDate < :reviewDate OR (r.reviewDate = :reviewDate AND r.reviewId < :reviewId)) " +
+           "ORDER BY r.reviewDate DESC, r.reviewId DESC")
+    List<ProductReview> findProductReviewsAfter(Long productId, LocalDateTime reviewDate, Long reviewId, Limit limit);
+    
     List<ProductReview> findByCustomerCustomerId(Long customerId);
     
     @Query("SELECT AVG(r.rating) FROM ProductReview r WHERE r.product.productId = :productId")
@@ -21,4 +37,15 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
     
     @Query("SELECT COUNT(r) FROM ProductReview r WHERE r.product.productId = :productId AND r.recommended = true")
     Long countRecommendedByProductId(Long productId);
+    
+    // Recomputes the rating aggregates of every reviewed product from scratch
+    @Query("SELECT r.product.productId AS productId, SUM(r.rating) AS ratingSum, COUNT(r) AS ratingCount, " +
+           "SUM(CASE WHEN r.recommended = true THEN 1 ELSE 0 END) AS recommendedCount " +
+           "FROM ProductReview r GROUP BY r.product.productId")
+    List<RatingAggregate> aggregateRatingsByProduct();
+    
+    @Query("SELECT r.product.productId AS productId, SUM(r.rating) AS ratingSum, COUNT(r) AS ratingCount, " +
+           "SUM(CASE WHEN r.recommended = true THEN 1 ELSE 0 END) AS recommendedCount " +
+           "FROM ProductReview r WHERE r.product.productId = :productId GROUP BY r.product.productId")
+    Optional<RatingAggregate> aggregateRatingsOfProduct(Long productId);
 }
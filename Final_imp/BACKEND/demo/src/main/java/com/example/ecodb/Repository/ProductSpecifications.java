@@ -0,0 +1,59 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.dto.request.ProductBrowseRequest;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+// Database equivalent of the facet index filters, used while the index is not built yet
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductBrowseRequest request) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+                predicates.add(root.get("category").get("categoryId").in(request.getCategoryIds()));
+            }
+            if (request.getColors() != null && !request.getColors().isEmpty()) {
+                predicates.add(cb.lower(cb.trim(root.get("color"))).in(lowercase(request.getColors())));
+            }
+            if (request.getSizes() != null && !request.getSizes().isEmpty()) {
+                predicates.add(cb.lower(cb.trim(root.get("size"))).in(lowercase(request.getSizes())));
+            }
+            if (request.getAvailable() != null) {
+                predicates.add(request.getAvailable()
+                        ? cb.isTrue(root.get("isAvailable"))
+                        : cb.or(cb.isFalse(root.get("isAvailable")), cb.isNull(root.get("isAvailable"))));
+            }
+            if (request.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), request.getMinPrice()));
+            }
+            if (request.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), request.getMaxPrice()));
+            }
+            if (request.getMinRating() != null) {
+                // rating_sum >= minRating * rating_count keeps the comparison in integer columns
+                predicates.add(cb.greaterThan(root.get("ratingCount"), 0L));
+                predicates.add(cb.ge(root.<Long>get("ratingSum"),
+                        cb.prod(root.<Long>get("ratingCount"), request.getMinRating())));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static List<String> lowercase(List<String> values) {
+        return values.stream()
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+}
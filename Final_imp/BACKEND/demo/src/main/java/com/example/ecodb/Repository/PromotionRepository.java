@@ -1,6 +1,7 @@
 package com.example.ecodb.Repository;
 
 import com.example.ecodb.Model.Promotion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -18,4 +19,9 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
     List<Promotion> findExpiredPromotions(LocalDateTime now);
     
     List<Promotion> findByCategoriesCategoryId(Long categoryId);
+    
+    // Active and upcoming promotions with their categories, for compiling the price rules
+    @EntityGraph(attributePaths = {"categories"})
+    @Query("SELECT DISTINCT p FROM Promotion p WHERE p.endDate >= :now")
+    List<Promotion> findCurrentAndUpcoming(LocalDateTime now);
 }
@@ -0,0 +1,13 @@
+package com.example.ecodb.Repository;
+
+// Projection of the per-product rating aggregates
+public interface RatingAggregate {
+
+    Long getProductId();
+
+    Long getRatingSum();
+
+    Long getRatingCount();
+
+    Long getRecommendedCount();
+}
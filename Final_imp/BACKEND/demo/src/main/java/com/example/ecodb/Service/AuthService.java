@@ -2,6 +2,7 @@ package com.example.ecodb.Service;
 
 import com.example.ecodb.dto.request.LoginRequest;
 import com.example.ecodb.dto.request.RegisterRequest;
+import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.JwtResponse;
 import com.example.ecodb.dto.response.UserResponse;
 
@@ -11,6 +12,8 @@ public interface AuthService {
     
     JwtResponse loginUser(LoginRequest loginRequest);
     
+    ApiResponse logout();
+    
     UserResponse getCurrentUser();
 
     UserResponse registerAdmin(RegisterRequest registerRequest);
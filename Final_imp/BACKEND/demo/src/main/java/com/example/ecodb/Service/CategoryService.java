@@ -1,5 +1,6 @@
 package com.example.ecodb.Service;
 
+import com.example.ecodb.cache.CategorySnapshot;
 import com.example.ecodb.dto.request.CategoryRequest;
 import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.CategoryResponse;
@@ -14,6 +15,8 @@ public interface CategoryService {
     
     List<CategoryResponse> getAllCategories();
     
+    CategorySnapshot getCategorySnapshot();
+    
     CategoryResponse updateCategory(Long id, CategoryRequest categoryRequest);
     
     ApiResponse deleteCategory(Long id);
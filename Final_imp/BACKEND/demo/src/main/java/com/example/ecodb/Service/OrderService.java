@@ -5,12 +5,17 @@ import com.example.ecodb.dto.request.FrontendOrderRequest;
 import com.example.ecodb.dto.request.OrderRequest;
 import com.example.ecodb.dto.request.OrderStatusUpdateRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
 import com.example.ecodb.dto.response.OrderResponse;
+import com.example.ecodb.export.ExportFormat;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface OrderService {
     
@@ -22,17 +27,24 @@ public interface OrderService {
     
     Page<OrderResponse> getCurrentUserOrders(Pageable pageable);
     
+    CursorPageResponse<OrderResponse> scrollCurrentUserOrders(String cursor, int size);
+    
     Page<OrderResponse> getAllOrders(Pageable pageable);
     
     List<OrderResponse> getOrdersByStatus(Order.OrderStatus status);
     
     List<OrderResponse> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate);
     
+    long exportOrders(ExportFormat format, Order.OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+                      OutputStream outputStream) throws IOException;
+    
     OrderResponse updateOrderStatus(Long orderId, OrderStatusUpdateRequest statusUpdateRequest);
     
     ApiResponse cancelOrder(Long orderId);
     
     Double calculateRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate);
     
+    Map<Long, Double> calculateRevenueByCategory(LocalDateTime startDate, LocalDateTime endDate);
+    
     Long countOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate);
 }
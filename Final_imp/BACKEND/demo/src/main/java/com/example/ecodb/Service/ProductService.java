@@ -1,7 +1,11 @@
 package com.example.ecodb.Service;
 
+import com.example.ecodb.dto.request.ProductBrowseRequest;
 import com.example.ecodb.dto.request.ProductRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
+import com.example.ecodb.dto.response.ProductCardResponse;
+import com.example.ecodb.dto.response.ProductBrowseResponse;
 import com.example.ecodb.dto.response.ProductResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,13 +19,17 @@ public interface ProductService {
     
     ProductResponse getProductById(Long id);
     
-    Page<ProductResponse> getAllProducts(Pageable pageable);
+    Page<ProductCardResponse> getAllProducts(Pageable pageable);
     
-    Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable);
+    CursorPageResponse<ProductResponse> scrollProducts(String cursor, int size);
     
-    Page<ProductResponse> searchProducts(String keyword, Pageable pageable);
+    Page<ProductCardResponse> getProductsByCategory(Long categoryId, Pageable pageable);
     
-    List<ProductResponse> getLatestProducts(int count);
+    Page<ProductCardResponse> searchProducts(String keyword, Pageable pageable);
+    
+    ProductBrowseResponse browseProducts(ProductBrowseRequest browseRequest, Pageable pageable);
+    
+    List<ProductCardResponse> getLatestProducts(int count);
     
     List<ProductResponse> getProductsLowInStock(int threshold);
     
@@ -39,4 +47,6 @@ public interface ProductService {
     ApiResponse deleteProductImageByUrl(Long productId, String imageUrl);
     
     ApiResponse setMainProductImage(Long imageId);
+    
+    ApiResponse getProductCacheStats();
 }
@@ -2,6 +2,7 @@ package com.example.ecodb.Service;
 
 import com.example.ecodb.dto.request.ReviewRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
 import com.example.ecodb.dto.response.ReviewResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +17,8 @@ public interface ReviewService {
     
     Page<ReviewResponse> getProductReviews(Long productId, Pageable pageable);
     
+    CursorPageResponse<ReviewResponse> scrollProductReviews(Long productId, String cursor, int size);
+    
     List<ReviewResponse> getCurrentUserReviews();
     
     Double calculateProductAverageRating(Long productId);
@@ -25,4 +28,6 @@ public interface ReviewService {
     ReviewResponse updateReview(Long reviewId, ReviewRequest reviewRequest);
     
     ApiResponse deleteReview(Long reviewId);
+    
+    ApiResponse rebuildRatingAggregates();
 }
@@ -2,20 +2,15 @@ package com.example.ecodb.Service.impl;
 
 import com.example.ecodb.Model.Address;
 import com.example.ecodb.Model.Customer;
-import com.example.ecodb.Model.User;
 import com.example.ecodb.Repository.AddressRepository;
-import com.example.ecodb.Repository.CustomerRepository;
-import com.example.ecodb.Repository.UserRepository;
 import com.example.ecodb.Service.AddressService;
 import com.example.ecodb.dto.request.AddressRequest;
 import com.example.ecodb.dto.response.AddressResponse;
 import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.exception.ResourceNotFoundException;
-import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.security.CurrentPrincipal;
 import lombok.Builder;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,8 +22,7 @@ import java.util.stream.Collectors;
 public class AddressServiceImpl implements AddressService {
 
     private final AddressRepository addressRepository;
-    private final UserRepository userRepository;
-    private final CustomerRepository customerRepository;
+    private final CurrentPrincipal currentPrincipal;
 
     @Override
     public List<AddressResponse> getCurrentUserAddresses() {
@@ -150,15 +144,7 @@ public class AddressServiceImpl implements AddressService {
     
     // Helper method to get current customer
     private Customer getCurrentCustomer() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-        
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can manage addresses");
-        }
-        
-        return customer;
+        // Customer id comes from the token claims
+        return currentPrincipal.requireCustomer("Only customers can manage addresses");
     }
 }
@@ -11,17 +11,19 @@ import com.example.ecodb.Repository.UserRepository;
 import com.example.ecodb.Service.AuthService;
 import com.example.ecodb.dto.request.LoginRequest;
 import com.example.ecodb.dto.request.RegisterRequest;
+import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.JwtResponse;
 import com.example.ecodb.dto.response.UserResponse;
 import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
-import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.security.CurrentPrincipal;
 import com.example.ecodb.security.JwtTokenProvider;
+import com.example.ecodb.security.RevokedTokenRegistry;
+import com.example.ecodb.security.UserPrincipal;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,6 +38,8 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final CurrentPrincipal currentPrincipal;
+    private final RevokedTokenRegistry revokedTokenRegistry;
     
     public AuthServiceImpl(
             UserRepository userRepository,
@@ -44,7 +48,9 @@ public class AuthServiceImpl implements AuthService {
             AdminRepository adminRepository,
             PasswordEncoder passwordEncoder,
             AuthenticationManager authenticationManager,
-            JwtTokenProvider jwtTokenProvider) {
+            JwtTokenProvider jwtTokenProvider,
+            CurrentPrincipal currentPrincipal,
+            RevokedTokenRegistry revokedTokenRegistry) {
         this.userRepository = userRepository;
         this.customerRepository = customerRepository;
         this.shoppingCartRepository = shoppingCartRepository;
@@ -52,6 +58,8 @@ public class AuthServiceImpl implements AuthService {
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.currentPrincipal = currentPrincipal;
+        this.revokedTokenRegistry = revokedTokenRegistry;
     }    @Override
     @Transactional
     public UserResponse registerUser(RegisterRequest registerRequest) {
@@ -114,11 +122,11 @@ public class AuthServiceImpl implements AuthService {
         String jwt = jwtTokenProvider.generateToken(authentication);
 
         // Get user details
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 
-        // Get user from database
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userDetails.getUsername()));
+        // Get user by id; already in the persistence context from authentication
+        User user = userRepository.findById(principal.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", principal.getUserId()));
 
         // Return JWT response
         return JwtResponse.builder()
@@ -131,17 +139,18 @@ public class AuthServiceImpl implements AuthService {
                 .role(user.getRole().name())
                 .build();
     }    @Override
-    public UserResponse getCurrentUser() {
-        // Get current authentication
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    public ApiResponse logout() {
+        // Deny the token this request was authenticated with until it expires
+        UserPrincipal principal = currentPrincipal.getPrincipal();
+        revokedTokenRegistry.revoke(principal.getTokenId(), principal.getUserId(), principal.getTokenExpiresAt());
         
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new UnauthorizedException("User not authenticated");
-        }
+        return new ApiResponse(true, "Logged out successfully");
+    }
 
-        // Get user from database
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", authentication.getName()));
+    @Override
+    public UserResponse getCurrentUser() {
+        // Get current user by the id in the token claims
+        User user = currentPrincipal.getUser();
 
         // Return user response
         return UserResponse.fromEntity(user);
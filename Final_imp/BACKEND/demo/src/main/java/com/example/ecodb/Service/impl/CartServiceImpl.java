@@ -2,24 +2,24 @@ package com.example.ecodb.Service.impl;
 
 import com.example.ecodb.Model.*;
 import com.example.ecodb.Repository.CartItemRepository;
-import com.example.ecodb.Repository.CustomerRepository;
 import com.example.ecodb.Repository.ProductRepository;
 import com.example.ecodb.Repository.ShoppingCartRepository;
-import com.example.ecodb.Repository.UserRepository;
 import com.example.ecodb.Service.CartService;
 import com.example.ecodb.dto.request.CartItemRequest;
 import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.ShoppingCartResponse;
 import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
-import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.inventory.InventoryReservationService;
+import com.example.ecodb.pricing.PricingEngine;
+import com.example.ecodb.security.CurrentPrincipal;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,43 +27,28 @@ public class CartServiceImpl implements CartService {
 
     private final ShoppingCartRepository shoppingCartRepository;
     private final CartItemRepository cartItemRepository;
-    private final UserRepository userRepository;
-    private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final PricingEngine pricingEngine;
+    private final CurrentPrincipal currentPrincipal;
 
     @Override
     public ShoppingCartResponse getCurrentUserCart() {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is a customer
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can access shopping carts");
-        }
+        // Current customer from the token claims
+        Customer customer = currentPrincipal.requireCustomer("Only customers can access shopping carts");
 
         // Get or create shopping cart
         ShoppingCart cart = getOrCreateShoppingCart(customer);
 
         // Return cart response
-        return ShoppingCartResponse.fromEntity(cart);
+        return ShoppingCartResponse.fromEntity(cart, pricingEngine::unitPrice);
     }
 
     @Override
     @Transactional
     public ShoppingCartResponse addItemToCart(CartItemRequest cartItemRequest) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is a customer
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can add items to shopping carts");
-        }
+        // Current customer from the token claims
+        Customer customer = currentPrincipal.requireCustomer("Only customers can add items to shopping carts");
 
         // Get or create shopping cart
         ShoppingCart cart = getOrCreateShoppingCart(customer);
@@ -87,10 +72,9 @@ public class CartServiceImpl implements CartService {
             totalQuantityAfterAdding = cartItemRequest.getQuantity();
         }
 
-        // Check if there's enough stock for the total quantity
-        if (product.getQuantityInStock() < totalQuantityAfterAdding) {
-            throw new BadRequestException("Not enough stock available. Only " + product.getQuantityInStock() + " items left.");
-        }
+        // Hold the total quantity against the stock not already held for other carts
+        inventoryReservationService.hold(product.getProductId(), customer.getCustomerId(),
+                totalQuantityAfterAdding, product.getQuantityInStock());
 
         if (existingItem.isPresent()) {
             // Update quantity
@@ -109,22 +93,14 @@ public class CartServiceImpl implements CartService {
         }
 
         // Return updated cart
-        return ShoppingCartResponse.fromEntity(cart);
+        return ShoppingCartResponse.fromEntity(cart, pricingEngine::unitPrice);
     }
 
     @Override
     @Transactional
     public ShoppingCartResponse updateCartItem(Long productId, CartItemRequest cartItemRequest) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is a customer
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can update items in shopping carts");
-        }
+        // Current customer from the token claims
+        Customer customer = currentPrincipal.requireCustomer("Only customers can update items in shopping carts");
 
         // Get shopping cart
         ShoppingCart cart = shoppingCartRepository.findByCustomerCustomerId(customer.getCustomerId())
@@ -143,32 +119,23 @@ public class CartServiceImpl implements CartService {
             throw new BadRequestException("Product is not available");
         }
 
-        // Check if there's enough stock
-        if (product.getQuantityInStock() < cartItemRequest.getQuantity()) {
-            throw new BadRequestException("Not enough stock available. Only " + product.getQuantityInStock() + " items left.");
-        }
+        // Move the hold to the new quantity against the stock not already held for other carts
+        inventoryReservationService.hold(product.getProductId(), customer.getCustomerId(),
+                cartItemRequest.getQuantity(), product.getQuantityInStock());
 
         // Update quantity
         cartItem.setQuantity(cartItemRequest.getQuantity());
         cartItemRepository.save(cartItem);
 
         // Return updated cart
-        return ShoppingCartResponse.fromEntity(cart);
+        return ShoppingCartResponse.fromEntity(cart, pricingEngine::unitPrice);
     }
 
     @Override
     @Transactional
     public ApiResponse removeItemFromCart(Long productId) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is a customer
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can remove items from shopping carts");
-        }
+        // Current customer from the token claims
+        Customer customer = currentPrincipal.requireCustomer("Only customers can remove items from shopping carts");
 
         // Get shopping cart
         ShoppingCart cart = shoppingCartRepository.findByCustomerCustomerId(customer.getCustomerId())
@@ -181,30 +148,30 @@ public class CartServiceImpl implements CartService {
         // Remove item from cart
         cartItemRepository.deleteByCartCartIdAndProductProductId(cart.getCartId(), productId);
 
+        // Give the held stock back to other customers
+        inventoryReservationService.releaseAfterCommit(customer.getCustomerId(), List.of(productId));
+
         return new ApiResponse(true, "Item removed from cart successfully");
     }
 
     @Override
     @Transactional
     public ApiResponse clearCart() {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is a customer
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can clear shopping carts");
-        }
+        // Current customer from the token claims
+        Customer customer = currentPrincipal.requireCustomer("Only customers can clear shopping carts");
 
         // Get shopping cart
         ShoppingCart cart = shoppingCartRepository.findByCustomerCustomerId(customer.getCustomerId())
                 .orElseThrow(() -> new ResourceNotFoundException("Shopping cart", "customer id", customer.getCustomerId()));
 
         // Remove all items from cart
-        cartItemRepository.findByCartCartId(cart.getCartId())
-                .forEach(cartItem -> cartItemRepository.delete(cartItem));
+        List<CartItem> cartItems = cartItemRepository.findByCartCartId(cart.getCartId());
+        cartItems.forEach(cartItem -> cartItemRepository.delete(cartItem));
+
+        // Give the held stock back to other customers
+        inventoryReservationService.releaseAfterCommit(customer.getCustomerId(), cartItems.stream()
+                .map(cartItem -> cartItem.getId().getProductId())
+                .collect(Collectors.toList()));
 
         return new ApiResponse(true, "Cart cleared successfully");
     }
@@ -2,25 +2,34 @@ package com.example.ecodb.Service.impl;
 
 import com.example.ecodb.Model.Category;
 import com.example.ecodb.Repository.CategoryRepository;
+import com.example.ecodb.Repository.ProductRepository;
 import com.example.ecodb.Service.CategoryService;
+import com.example.ecodb.cache.CategorySnapshot;
+import com.example.ecodb.cache.CategorySnapshotCache;
 import com.example.ecodb.dto.request.CategoryRequest;
 import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.CategoryResponse;
+import com.example.ecodb.event.CategoryChangedEvent;
 import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategorySnapshotCache categorySnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Transactional
     public CategoryResponse createCategory(CategoryRequest categoryRequest) {
         // Check if category with the same name already exists
         if (categoryRepository.existsByCategoryName(categoryRequest.getCategoryName())) {
@@ -33,26 +42,33 @@ public class CategoryServiceImpl implements CategoryService {
                 .build();
         
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId(), CategoryChangedEvent.ChangeType.CREATED));
         
         return CategoryResponse.fromEntity(savedCategory);
     }
 
     @Override
     public CategoryResponse getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
+        CategoryResponse category = categorySnapshotCache.get().getCategory(id);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category", "id", id);
+        }
         
-        return CategoryResponse.fromEntity(category);
+        return category;
     }
 
     @Override
     public List<CategoryResponse> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(CategoryResponse::fromEntity)
-                .collect(Collectors.toList());
+        return categorySnapshotCache.get().getCategories();
+    }
+
+    @Override
+    public CategorySnapshot getCategorySnapshot() {
+        return categorySnapshotCache.get();
     }
 
     @Override
+    @Transactional
     public CategoryResponse updateCategory(Long id, CategoryRequest categoryRequest) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
@@ -67,22 +83,25 @@ public class CategoryServiceImpl implements CategoryService {
         category.setCategoryName(categoryRequest.getCategoryName());
         
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.ChangeType.UPDATED));
         
         return CategoryResponse.fromEntity(updatedCategory);
     }
 
     @Override
+    @Transactional
     public ApiResponse deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
         
         // Check if category has products
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
+        if (productRepository.existsByCategoryCategoryId(id)) {
             throw new BadRequestException("Cannot delete category with associated products");
         }
         
         // Delete category
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.ChangeType.DELETED));
         
         return new ApiResponse(true, "Category deleted successfully");
     }
@@ -3,16 +3,14 @@ package com.example.ecodb.Service.impl;
 import com.example.ecodb.Model.CreditCard;
 import com.example.ecodb.Model.User;
 import com.example.ecodb.Repository.CreditCardRepository;
-import com.example.ecodb.Repository.UserRepository;
 import com.example.ecodb.Service.CreditCardService;
 import com.example.ecodb.dto.request.CreditCardRequest;
 import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.CreditCardResponse;
 import com.example.ecodb.exception.ResourceNotFoundException;
 import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.security.CurrentPrincipal;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,7 +23,7 @@ import java.util.stream.Collectors;
 public class CreditCardServiceImpl implements CreditCardService {
 
     private final CreditCardRepository creditCardRepository;
-    private final UserRepository userRepository;
+    private final CurrentPrincipal currentPrincipal;
 
     @Override
     public List<CreditCardResponse> getCurrentUserCreditCards() {
@@ -131,9 +129,7 @@ public class CreditCardServiceImpl implements CreditCardService {
     
     // Helper method to get current user
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
+        return currentPrincipal.getUser();
     }
     
     // Helper method to determine card type
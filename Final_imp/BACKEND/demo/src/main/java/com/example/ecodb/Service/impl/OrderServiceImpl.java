@@ -2,60 +2,73 @@ package com.example.ecodb.Service.impl;
 
 import com.example.ecodb.Model.*;
 import com.example.ecodb.Repository.*;
-import com.example.ecodb.Service.EmailService;
 import com.example.ecodb.Service.OrderService;
+import com.example.ecodb.analytics.OrderAnalytics;
+import com.example.ecodb.checkout.CheckoutContext;
+import com.example.ecodb.checkout.CheckoutEngine;
 import com.example.ecodb.dto.request.FrontendOrderRequest;
 import com.example.ecodb.dto.request.OrderRequest;
 import com.example.ecodb.dto.request.OrderStatusUpdateRequest;
 import com.example.ecodb.dto.request.PaymentRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
 import com.example.ecodb.dto.response.OrderResponse;
+import com.example.ecodb.event.ProductChangedEvent;
 import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
 import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.export.ExportFormat;
+import com.example.ecodb.export.OrderExporter;
+import com.example.ecodb.readmodel.OrderSummaryProjector;
+import com.example.ecodb.security.CurrentPrincipal;
+import com.example.ecodb.util.AppConstants;
+import com.example.ecodb.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class OrderServiceImpl implements OrderService {    private final OrderRepository orderRepository;
+public class OrderServiceImpl implements OrderService {
+
+    private static final Set<String> SUMMARY_SORT_PROPERTIES =
+            Set.of("orderId", "creationDate", "totalPrice", "orderStatus", "paymentStatus");
+
+    private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
-    private final UserRepository userRepository;
-    private final CustomerRepository customerRepository;
-    private final AddressRepository addressRepository;
     private final ShoppingCartRepository shoppingCartRepository;
     @SuppressWarnings("unused") // May be used in future implementations
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
-    private final ShipmentRepository shipmentRepository;    
-    private final CreditCardRepository creditCardRepository;
-    private final EmailService emailService;
+    private final ShipmentRepository shipmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CheckoutEngine checkoutEngine;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final OrderExporter orderExporter;
+    private final OrderAnalytics orderAnalytics;
+    private final OutboxEventRepository outboxEventRepository;
+    private final CurrentPrincipal currentPrincipal;
 
     @Override
     @Transactional
     public OrderResponse createOrder(OrderRequest orderRequest) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is a customer
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can place orders");
-        }
+        // Current customer from the token claims
+        Customer customer = currentPrincipal.requireCustomer("Only customers can place orders");
 
         // Get shopping cart
         ShoppingCart cart = shoppingCartRepository.findByCustomerCustomerId(customer.getCustomerId())
@@ -66,88 +79,23 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
             throw new BadRequestException("Cannot create order with an empty cart");
         }
 
-        // Get shipping and billing addresses
-        Address shippingAddress = addressRepository.findById(orderRequest.getShippingAddressId())
-                .orElseThrow(() -> new ResourceNotFoundException("Shipping address", "id", orderRequest.getShippingAddressId()));
-        
-        Address billingAddress = addressRepository.findById(orderRequest.getBillingAddressId())
-                .orElseThrow(() -> new ResourceNotFoundException("Billing address", "id", orderRequest.getBillingAddressId()));
+        // Order lines come from the cart; products are resolved by the checkout engine
+        CheckoutContext context = new CheckoutContext(customer,
+                orderRequest.getShippingAddressId(), orderRequest.getBillingAddressId(), orderRequest.getPayment());
+        cart.getCartItems().forEach(cartItem -> context.addLine(cartItem.getId().getProductId(), cartItem.getQuantity()));
 
-        // Verify that addresses belong to the customer
-        if (!shippingAddress.getCustomer().getCustomerId().equals(customer.getCustomerId())) {
-            throw new UnauthorizedException("Shipping address does not belong to the current customer");
-        }
-        if (!billingAddress.getCustomer().getCustomerId().equals(customer.getCustomerId())) {
-            throw new UnauthorizedException("Billing address does not belong to the current customer");
-        }
-
-        // Calculate total price
-        double totalPrice = cart.getCartItems().stream()
-                .mapToDouble(item -> item.getProduct().getPrice() * item.getQuantity())
-                .sum();
-
-        // Create order
-        Order order = Order.builder()
-                .totalPrice(totalPrice)
-                .orderStatus(Order.OrderStatus.Pending)
-                .paymentStatus(Order.PaymentStatus.Pending)
-                .customer(customer)
-                .shippingAddress(shippingAddress)
-                .billingAddress(billingAddress)
-                .build();
-        
-        Order savedOrder = orderRepository.save(order);
-
-        // Create order items from cart items
-        for (CartItem cartItem : cart.getCartItems()) {
-            OrderItem orderItem = OrderItem.builder()
-                    .id(new OrderItemId(savedOrder.getOrderId(), cartItem.getProduct().getProductId()))
-                    .order(savedOrder)
-                    .product(cartItem.getProduct())
-                    .quantity(cartItem.getQuantity())
-                    .priceAtPurchase(cartItem.getProduct().getPrice())
-                    .build();
-            
-            orderItemRepository.save(orderItem);
-              // Update product stock
-            Product product = cartItem.getProduct();
-            product.setQuantityInStock(product.getQuantityInStock() - cartItem.getQuantity());
-            productRepository.save(product);
-        }
-        
-        // Process payment
-        processPayment(savedOrder, orderRequest.getPayment());
-        
-        // Create shipment
-        createShipment(savedOrder);
-        
-        // Clear cart and reset it for future use
-        cart.getCartItems().clear();
-        cart.setCartStatus(ShoppingCart.CartStatus.Active);
-        shoppingCartRepository.save(cart);
-        
-        // Send order confirmation email
-        String customerEmail = user.getEmail();
-        String customerName = user.getFirstName() + " " + user.getLastName();
-        emailService.sendOrderConfirmationEmail(customerEmail, savedOrder.getOrderId(), customerName);
+        Order savedOrder = checkoutEngine.checkout(context);
 
         return OrderResponse.fromEntity(savedOrder);
     }
 
     @Override
     public OrderResponse getOrderById(Long orderId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-        
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         
         // Check if user is admin or the order belongs to the authenticated customer
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        
-        if (!isAdmin && (customer == null || !order.getCustomer().getCustomerId().equals(customer.getCustomerId()))) {
+        if (!currentPrincipal.isAdmin() && !currentPrincipal.isCustomer(order.getCustomer().getCustomerId())) {
             throw new UnauthorizedException("You do not have permission to view this order");
         }
         
@@ -156,13 +104,13 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
 
     @Override
     public Page<OrderResponse> getCurrentUserOrders(Pageable pageable) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can view their orders");
+        // Current customer from the token claims
+        Customer customer = currentPrincipal.requireCustomer("Only customers can view their orders");
+        
+        // Served from the order summary read model: one indexed query, no per-order lazy loading
+        if (orderSummaryProjector.isReady() && isSummarySortable(pageable.getSort())) {
+            return orderSummaryRepository.findByCustomerId(customer.getCustomerId(), pageable)
+                    .map(orderSummaryProjector::read);
         }
         
         Page<Order> orders = orderRepository.findByCustomerCustomerId(customer.getCustomerId(), pageable);
@@ -174,13 +122,50 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
         return new PageImpl<>(orderResponses, pageable, orders.getTotalElements());
     }
 
+    // Sorts the read model can answer; anything else goes to the orders table
+    private static boolean isSummarySortable(Sort sort) {
+        return sort.stream().allMatch(order -> SUMMARY_SORT_PROPERTIES.contains(order.getProperty()));
+    }
+
+    @Override
+    public CursorPageResponse<OrderResponse> scrollCurrentUserOrders(String cursor, int size) {
+        // Current customer from the token claims
+        Customer customer = currentPrincipal.requireCustomer("Only customers can view their orders");
+
+        int pageSize = Math.min(Math.max(size, 1), AppConstants.MAX_CURSOR_PAGE_SIZE);
+
+        if (orderSummaryProjector.isReady()) {
+            List<OrderSummary> summaries;
+            if (cursor == null || cursor.isBlank()) {
+                summaries = orderSummaryRepository.findCustomerSummariesFirstPage(customer.getCustomerId(), Limit.of(pageSize + 1));
+            } else {
+                CursorCodec.Cursor position = CursorCodec.decode(cursor);
+                summaries = orderSummaryRepository.findCustomerSummariesAfter(customer.getCustomerId(),
+                        position.getTimestamp(), position.getId(), Limit.of(pageSize + 1));
+            }
+
+            return CursorPageResponse.of(summaries, pageSize, orderSummaryProjector::read,
+                    summary -> CursorCodec.encode(summary.getCreationDate(), summary.getOrderId()));
+        }
+
+        // Seek past the last order of the previous page; one extra row tells whether there is a next page
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findCustomerOrdersFirstPage(customer.getCustomerId(), Limit.of(pageSize + 1));
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            orders = orderRepository.findCustomerOrdersAfter(customer.getCustomerId(),
+                    position.getTimestamp(), position.getId(), Limit.of(pageSize + 1));
+        }
+
+        return CursorPageResponse.of(orders, pageSize, OrderResponse::fromEntity,
+                order -> CursorCodec.encode(order.getCreationDate(), order.getOrderId()));
+    }
+
     @Override
     public Page<OrderResponse> getAllOrders(Pageable pageable) {
         // Only admins can view all orders
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can view all orders");
         }
         
@@ -196,10 +181,7 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
     @Override
     public List<OrderResponse> getOrdersByStatus(Order.OrderStatus status) {
         // Only admins can filter orders by status
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can filter orders by status");
         }
         
@@ -213,10 +195,7 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
     @Override
     public List<OrderResponse> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         // Only admins can filter orders by date range
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can filter orders by date range");
         }
         
@@ -227,14 +206,27 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public long exportOrders(ExportFormat format, Order.OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+                             OutputStream outputStream) throws IOException {
+        // Only admins can export orders
+        if (!currentPrincipal.isAdmin()) {
+            throw new UnauthorizedException("Only admins can export orders");
+        }
+        
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new BadRequestException("Start date must not be after end date");
+        }
+        
+        // Rows go straight to the output stream instead of being collected into a list
+        return orderExporter.export(format, status, startDate, endDate, outputStream);
+    }
+
     @Override
     @Transactional
     public OrderResponse updateOrderStatus(Long orderId, OrderStatusUpdateRequest statusUpdateRequest) {
         // Only admins can update order status
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can update order status");
         }
         
@@ -258,24 +250,18 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
         }
         
         Order updatedOrder = orderRepository.save(order);
+        orderSummaryProjector.project(orderId);
         return OrderResponse.fromEntity(updatedOrder);
     }
 
     @Override
     @Transactional
     public ApiResponse cancelOrder(Long orderId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-        
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         
         // Check if user is admin or the order belongs to the authenticated customer
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        
-        if (!isAdmin && (customer == null || !order.getCustomer().getCustomerId().equals(customer.getCustomerId()))) {
+        if (!currentPrincipal.isAdmin() && !currentPrincipal.isCustomer(order.getCustomer().getCustomerId())) {
             throw new UnauthorizedException("You do not have permission to cancel this order");
         }
         
@@ -293,14 +279,18 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
         }
         
         // Return items to inventory
-        List<OrderItem> orderItems = orderItemRepository.findByOrderOrderId(orderId);
-        for (OrderItem orderItem : orderItems) {
-            Product product = orderItem.getProduct();
-            product.setQuantityInStock(product.getQuantityInStock() + orderItem.getQuantity());
-            productRepository.save(product);
-        }
+        Map<Long, Integer> returnedQuantities = orderItemRepository.findByOrderOrderId(orderId).stream()
+                .collect(Collectors.groupingBy(orderItem -> orderItem.getProduct().getProductId(),
+                        Collectors.summingInt(OrderItem::getQuantity)));
+        productRepository.incrementStock(returnedQuantities);
+        returnedQuantities.keySet().forEach(productId ->
+                eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.UPDATED)));
         
         orderRepository.save(order);
+        orderSummaryProjector.project(orderId);
+        
+        // A refund moves the order to another payment status in the analytics rollups
+        outboxEventRepository.save(OutboxEvent.of(OutboxEvent.EventType.UPDATE_ORDER_ROLLUP, orderId));
         
         return new ApiResponse(true, "Order cancelled successfully");
     }
@@ -308,260 +298,53 @@ public class OrderServiceImpl implements OrderService {    private final OrderRe
     @Override
     public Double calculateRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         // Only admins can calculate revenue
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        if (!currentPrincipal.isAdmin()) {
+            throw new UnauthorizedException("Only admins can calculate revenue");
+        }
         
-        if (!isAdmin) {
+        // Rollup buckets plus a live tail instead of summing every order in the range
+        return orderAnalytics.revenue(startDate, endDate);
+    }
+
+    @Override
+    public Map<Long, Double> calculateRevenueByCategory(LocalDateTime startDate, LocalDateTime endDate) {
+        // Only admins can calculate revenue
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can calculate revenue");
         }
         
-        Double revenue = orderRepository.calculateRevenueByDateRange(startDate, endDate);
-        return revenue != null ? revenue : 0.0;
+        return orderAnalytics.revenueByCategory(startDate, endDate);
     }
 
     @Override
     public Long countOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         // Only admins can count orders
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can count orders");
         }
         
-        Long count = orderRepository.countOrdersByDateRange(startDate, endDate);
-        return count != null ? count : 0L;
-    }    // Helper method to process payment
-    private void processPayment(Order order, PaymentRequest paymentRequest) {
-        try {
-            // Check if payment request is null, default to COD
-            if (paymentRequest == null) {
-                order.setPaymentStatus(Order.PaymentStatus.Pending);
-                orderRepository.save(order);
-                return;
-            }
-
-            // In a real application, this would integrate with a payment gateway
-            // For now, we'll simulate payment processing
-            
-            // Handle Cash on Delivery payment method
-            if (PaymentMethod.CASH_ON_DELIVERY.name().equals(paymentRequest.getPaymentMethod()) || paymentRequest.isCashOnDelivery()) {
-                // For COD, payment is pending until delivery
-                order.setPaymentStatus(Order.PaymentStatus.Pending);
-                orderRepository.save(order);
-                return; // Early return after setting payment status
-            }
-        // Handle Credit Card payments - using saved credit card
-        else if (paymentRequest.getCreditCardId() != null) {
-            CreditCard creditCard = creditCardRepository.findById(paymentRequest.getCreditCardId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Credit card", "id", paymentRequest.getCreditCardId()));
-            
-            // Verify card belongs to customer
-            if (!creditCard.getUser().getId().equals(order.getCustomer().getUser().getId())) {
-                throw new UnauthorizedException("Credit card does not belong to the current customer");
-            }
-            
-            // Process payment (simulate)
-            boolean paymentSuccessful = true; // In a real app, this would be the result from payment gateway
-            
-            if (paymentSuccessful) {
-                order.setPaymentStatus(Order.PaymentStatus.Completed);
-            } else {
-                order.setPaymentStatus(Order.PaymentStatus.Failed);
-                throw new BadRequestException("Payment processing failed");
-            }
-        }        // Handle Credit Card payments - using new credit card
-        else if (PaymentMethod.CREDIT_CARD.name().equals(paymentRequest.getPaymentMethod()) && paymentRequest.getAccountNumber() != null) {
-            // Validate card details
-            if (paymentRequest.getAccountNumber() == null || paymentRequest.getProvider() == null || 
-                paymentRequest.getExpireDate() == null || paymentRequest.getCvv() == null) {
-                throw new BadRequestException("Incomplete credit card information");
-            }
-            
-            // Process payment (simulate)
-            boolean paymentSuccessful = true; // In a real app, this would be the result from payment gateway
-            
-            if (paymentSuccessful) {
-                order.setPaymentStatus(Order.PaymentStatus.Completed);
-                
-                // Save card if requested
-                if (Boolean.TRUE.equals(paymentRequest.getSaveCard())) {
-                    // Parse expire date to LocalDateTime
-                    String[] parts = paymentRequest.getExpireDate().split("/");
-                    int month = Integer.parseInt(parts[0]);
-                    int year = Integer.parseInt(parts[1]);
-                    LocalDateTime expireDate = LocalDateTime.of(year, month, 1, 0, 0).plusMonths(1).minusDays(1);
-                    
-                    CreditCard creditCard = CreditCard.builder()
-                            .accountNumber(paymentRequest.getAccountNumber())
-                            .provider(paymentRequest.getProvider())
-                            .expireDate(expireDate)
-                            .isDefault(false)
-                            .user(order.getCustomer().getUser())
-                            .build();
-                    
-                    creditCardRepository.save(creditCard);
-                }
-            } else {
-                order.setPaymentStatus(Order.PaymentStatus.Failed);
-                throw new BadRequestException("Payment processing failed");
-            }
-        }        // Handle unsupported payment methods or incomplete requests
-        else {
-            // Default to pending instead of throwing an error
-            order.setPaymentStatus(Order.PaymentStatus.Pending);
-        }
-        
-        orderRepository.save(order);
-        } catch (Exception e) {
-            // Log the exception 
-            System.err.println("Error processing payment: " + e.getMessage());
-            // Default to pending if there's any error
-            order.setPaymentStatus(Order.PaymentStatus.Pending);
-            orderRepository.save(order);
-        }
+        return orderAnalytics.orderCount(startDate, endDate);
     }
-    
-    // Helper method to create shipment
-    private void createShipment(Order order) {
-        // Generate a random tracking number
-        String trackingNumber = "TRK" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        
-        // Create shipment
-        Shipment shipment = Shipment.builder()
-                .order(order)
-                .isDelivered(false)
-                .trackingNumber(trackingNumber)
-                .carrier("Standard Delivery")
-                .expectedTime(LocalDateTime.now().plusDays(5))
-                .build();
-        
-        shipmentRepository.save(shipment);
-    }    // Helper method to determine card type (unused for now but kept for future implementations)
-    @SuppressWarnings("unused")
-    private String determineCardType(String cardNumber) {
-        // Simplified version, in a real app this would be more robust
-        if (cardNumber.startsWith("4")) {
-            return "Visa";
-        } else if (cardNumber.startsWith("5")) {
-            return "Mastercard";
-        } else if (cardNumber.startsWith("34") || cardNumber.startsWith("37")) {
-            return "American Express";
-        } else if (cardNumber.startsWith("6")) {
-            return "Discover";
-        } else {
-            return "Unknown";
-        }
-    }    @Override
+
+    @Override
     @Transactional
     public OrderResponse createOrderFromFrontend(FrontendOrderRequest frontendOrderRequest) {
         try {
             System.out.println("Processing order request: " + frontendOrderRequest);
             
-            // Get current authenticated user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User user = userRepository.findByEmail(authentication.getName())
-                    .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-            // Check if user is a customer
-            Customer customer = customerRepository.findByUserEmail(user.getEmail());
-            if (customer == null) {
-                throw new UnauthorizedException("Only customers can place orders");
-            }
-
-            // Get the address for both shipping and billing (same address in frontend implementation)
-            Long addressId = frontendOrderRequest.getAddressId();
-            if (addressId == null) {
-                throw new BadRequestException("Address ID cannot be null");
-            }
-
-            Address address = addressRepository.findById(addressId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Address", "id", addressId));
-
-            // Verify that address belongs to the customer
-            if (!address.getCustomer().getCustomerId().equals(customer.getCustomerId())) {
-                throw new UnauthorizedException("Address does not belong to the current customer");
-            }
-
-            // Validate order items
-            if (frontendOrderRequest.getItems() == null || frontendOrderRequest.getItems().isEmpty()) {
-                throw new BadRequestException("Order must contain at least one item");
-            }
+            // Current customer from the token claims
+            Customer customer = currentPrincipal.requireCustomer("Only customers can place orders");
 
-            // Calculate total price from items in the request
-            double totalPrice = 0.0;
-            for (FrontendOrderRequest.OrderItemRequest itemRequest : frontendOrderRequest.getItems()) {
-                if (itemRequest.getProductId() == null) {
-                    throw new BadRequestException("Product ID cannot be null");
-                }
-                
-                Product product = productRepository.findById(itemRequest.getProductId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Product", "id", itemRequest.getProductId()));
-                
-                if (itemRequest.getQuantity() == null || itemRequest.getQuantity() <= 0) {
-                    throw new BadRequestException("Quantity must be greater than zero");
-                }
-                
-                totalPrice += product.getPrice() * itemRequest.getQuantity();
-            }
-
-            // Create order
-            Order order = Order.builder()
-                    .totalPrice(totalPrice)
-                    .orderStatus(Order.OrderStatus.Pending)
-                    .paymentStatus(Order.PaymentStatus.Pending)
-                    .customer(customer)
-                    .shippingAddress(address)
-                    .billingAddress(address) // Same address for both
-                    .build();
-            
-            Order savedOrder = orderRepository.save(order);
-
-            // Create order items from request items
-            for (FrontendOrderRequest.OrderItemRequest itemRequest : frontendOrderRequest.getItems()) {
-                Product product = productRepository.findById(itemRequest.getProductId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Product", "id", itemRequest.getProductId()));
-                
-                OrderItem orderItem = OrderItem.builder()
-                        .id(new OrderItemId(savedOrder.getOrderId(), product.getProductId()))
-                        .order(savedOrder)
-                        .product(product)
-                        .quantity(itemRequest.getQuantity())
-                        .priceAtPurchase(product.getPrice())
-                        .build();
-                
-                orderItemRepository.save(orderItem);
-                
-                // Update product stock
-                product.setQuantityInStock(product.getQuantityInStock() - itemRequest.getQuantity());
-                productRepository.save(product);
-            }
-              // Process payment - default to Cash on Delivery
+            // Same address for shipping and billing in the frontend implementation, paid cash on delivery
             PaymentRequest defaultPayment = new PaymentRequest();
             defaultPayment.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY.name());
-            processPayment(savedOrder, defaultPayment);
-            
-            // Create shipment
-            createShipment(savedOrder);
-            
-            // Clear cart after order is placed
-            ShoppingCart cart = shoppingCartRepository.findByCustomerCustomerId(customer.getCustomerId())
-                    .orElse(null);
-            if (cart != null) {
-                cart.getCartItems().clear();
-                cart.setCartStatus(ShoppingCart.CartStatus.Active);
-                shoppingCartRepository.save(cart);
-            }
-            
-            // Send order confirmation email
-            String customerEmail = user.getEmail();
-            String customerName = user.getFirstName() + " " + user.getLastName();
-            try {
-                emailService.sendOrderConfirmationEmail(customerEmail, savedOrder.getOrderId(), customerName);
-            } catch (Exception e) {
-                // Log email sending error but don't fail the order
-                System.err.println("Error sending order confirmation email: " + e.getMessage());
+            CheckoutContext context = new CheckoutContext(customer,
+                    frontendOrderRequest.getAddressId(), frontendOrderRequest.getAddressId(), defaultPayment);
+            if (frontendOrderRequest.getItems() != null) {
+                frontendOrderRequest.getItems().forEach(item -> context.addLine(item.getProductId(), item.getQuantity()));
             }
+
+            Order savedOrder = checkoutEngine.checkout(context);
             
             // Return the created order response
             OrderResponse response = OrderResponse.fromEntity(savedOrder);
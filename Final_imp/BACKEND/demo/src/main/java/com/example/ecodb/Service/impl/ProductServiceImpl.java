@@ -3,50 +3,70 @@ package com.example.ecodb.Service.impl;
 import com.example.ecodb.Model.*;
 import com.example.ecodb.Repository.*;
 import com.example.ecodb.Service.FileService;
+import com.example.ecodb.cache.LatestProductsBuffer;
+import com.example.ecodb.cache.ProductResponseCache;
 import com.example.ecodb.Service.ProductService;
+import com.example.ecodb.dto.request.ProductBrowseRequest;
 import com.example.ecodb.dto.request.ProductRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
+import com.example.ecodb.dto.response.ProductCardResponse;
+import com.example.ecodb.dto.response.ProductBrowseResponse;
 import com.example.ecodb.dto.response.ProductResponse;
+import com.example.ecodb.event.ProductChangedEvent;
+import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
 import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.pricing.PricingEngine;
+import com.example.ecodb.search.ProductFacetIndex;
+import com.example.ecodb.search.ProductSearchIndex;
+import com.example.ecodb.security.CurrentPrincipal;
 import com.example.ecodb.util.AppConstants;
+import com.example.ecodb.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    private static final Set<String> BROWSE_SORT_FIELDS = Set.of("creationDate", "price", "averageRating");
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final AdminRepository adminRepository;
-    private final UserRepository userRepository;
     private final ProductImageRepository productImageRepository;
-    private final ProductReviewRepository productReviewRepository;
     private final FileService fileService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductResponseCache productResponseCache;
+    private final LatestProductsBuffer latestProductsBuffer;
+    private final PricingEngine pricingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CurrentPrincipal currentPrincipal;
 
     @Override
     @Transactional
     public ProductResponse createProduct(ProductRequest productRequest) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is admin
-        Admin admin = adminRepository.findByUserEmail(user.getEmail());
-        if (admin == null) {
-            throw new UnauthorizedException("Only admins can create products");
-        }
+        // Current admin from the token claims
+        Admin admin = currentPrincipal.requireAdmin("Only admins can create products");
 
         // Find category
         Category category = categoryRepository.findById(productRequest.getCategoryId())
@@ -66,79 +86,162 @@ public class ProductServiceImpl implements ProductService {
 
         // Save product
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getProductId(), ProductChangedEvent.ChangeType.CREATED));
 
         // Return response
-        ProductResponse response = ProductResponse.fromEntity(savedProduct);
-        response.setAverageRating(calculateAverageRating(savedProduct.getProductId()));
-        return response;
+        return ProductResponse.fromEntity(savedProduct);
     }
 
     @Override
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        ProductResponse response = productResponseCache.get(id, productId -> {
+            Product product = productRepository.findDetailedByProductId(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
 
-        ProductResponse response = ProductResponse.fromEntity(product);
-        response.setAverageRating(calculateAverageRating(id));
-        return response;
+            return ProductResponse.fromEntity(product);
+        });
+
+        // Priced on the way out so cached responses never carry a stale discount
+        return pricingEngine.price(response);
     }
 
     @Override
-    public Page<ProductResponse> getAllProducts(Pageable pageable) {
-        return productRepository.findByIsAvailableTrue(pageable)
-                .map(product -> {
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    response.setAverageRating(calculateAverageRating(product.getProductId()));
-                    return response;
-                });
+    public ApiResponse getProductCacheStats() {
+        return new ApiResponse(true, "Product cache statistics", productResponseCache.getStats());
     }
 
     @Override
-    public Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
+    public Page<ProductCardResponse> getAllProducts(Pageable pageable) {
+        return productRepository.findAvailableCards(pageable).map(pricingEngine::price);
+    }
+
+    @Override
+    public CursorPageResponse<ProductResponse> scrollProducts(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), AppConstants.MAX_CURSOR_PAGE_SIZE);
+
+        // Seek past the last product of the previous page; one extra row tells whether there is a next page
+        List<Product> products;
+        if (cursor == null || cursor.isBlank()) {
+            products = productRepository.findAvailableFirstPage(Limit.of(pageSize + 1));
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            products = productRepository.findAvailableAfter(
+                    position.getTimestamp(), position.getId(), Limit.of(pageSize + 1));
+        }
+
+        return CursorPageResponse.of(products, pageSize, product -> pricingEngine.price(ProductResponse.fromEntity(product)),
+                product -> CursorCodec.encode(product.getCreationDate(), product.getProductId()));
+    }
+
+    @Override
+    public Page<ProductCardResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
         // Check if category exists
-        categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
-
-        return productRepository.findByCategory(
-                Category.builder().categoryId(categoryId).build(), 
-                pageable
-            ).map(product -> {
-                ProductResponse response = ProductResponse.fromEntity(product);
-                response.setAverageRating(calculateAverageRating(product.getProductId()));
-                return response;
-            });
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", "id", categoryId);
+        }
+
+        return productRepository.findCardsByCategoryId(categoryId, pageable).map(pricingEngine::price);
     }
 
     @Override
-    public Page<ProductResponse> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.searchProducts(keyword, pageable)
-                .map(product -> {
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    response.setAverageRating(calculateAverageRating(product.getProductId()));
-                    return response;
-                });
+    public Page<ProductCardResponse> searchProducts(String keyword, Pageable pageable) {
+        // Explicit sorts, and searches issued before the index has been built, go to the database
+        if (pageable.getSort().isSorted() || !productSearchIndex.isReady()) {
+            return productRepository.searchCards(keyword, pageable).map(pricingEngine::price);
+        }
+
+        // Rank in memory, then load only the products on the requested page
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(
+                keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        if (result.getProductIds().isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, result.getTotalMatches());
+        }
+
+        // Keep the relevance order of the index
+        Map<Long, ProductCardResponse> cardsById = productRepository.findCardsByProductIdIn(result.getProductIds()).stream()
+                .collect(Collectors.toMap(ProductCardResponse::getProductId, Function.identity()));
+        List<ProductCardResponse> cards = result.getProductIds().stream()
+                .map(cardsById::get)
+                .filter(Objects::nonNull)
+                .map(pricingEngine::price)
+                .collect(Collectors.toList());
+        return new PageImpl<>(cards, pageable, result.getTotalMatches());
     }
 
     @Override
-    public List<ProductResponse> getLatestProducts(int count) {
-        return productRepository.findTop10ByOrderByCreationDateDesc().stream()
-                .map(product -> {
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    response.setAverageRating(calculateAverageRating(product.getProductId()));
-                    return response;
-                })
-                .limit(count)
+    public ProductBrowseResponse browseProducts(ProductBrowseRequest browseRequest, Pageable pageable) {
+        Sort.Order order = pageable.getSort().stream().findFirst()
+                .orElse(Sort.Order.desc(AppConstants.DEFAULT_SORT_BY));
+        if (!BROWSE_SORT_FIELDS.contains(order.getProperty())) {
+            throw new BadRequestException("Products can only be browsed by " + BROWSE_SORT_FIELDS);
+        }
+
+        Page<ProductResponse> page;
+        Map<String, Map<String, Long>> facets = Collections.emptyMap();
+        if (productFacetIndex.isReady()) {
+            // Filter, count facets and pick the page in memory, then load only the products on it
+            ProductFacetIndex.BrowseResult result = productFacetIndex.browse(browseRequest,
+                    (int) pageable.getOffset(), pageable.getPageSize(), order.getProperty(), order.isAscending());
+            page = new PageImpl<>(findProductsInOrder(result.getProductIds()), pageable, result.getTotalMatches());
+            facets = result.getFacets();
+        } else {
+            // Filter in the database until the facet index has been built; facet counts are left empty.
+            // averageRating is derived from the rating aggregates, so it has no column to sort on
+            Sort sort = order.getProperty().equals("averageRating") ? Sort.unsorted() : Sort.by(order);
+            page = productRepository.findAll(ProductSpecifications.matching(browseRequest),
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort))
+                    .map(ProductResponse::fromEntity)
+                    .map(pricingEngine::price);
+        }
+
+        return ProductBrowseResponse.builder()
+                .content(page.getContent())
+                .pageNumber(page.getNumber())
+                .pageSize(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .last(page.isLast())
+                .facets(facets)
+                .build();
+    }
+
+    // Loads products by id and returns them in the order of the given ids
+    private List<ProductResponse> findProductsInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Product> productsById = productRepository.findByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(ProductResponse::fromEntity)
+                .map(pricingEngine::price)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ProductCardResponse> getLatestProducts(int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        int limit = Math.min(count, latestProductsBuffer.getCapacity());
+
+        // Served from memory once the buffer is warm; the query only covers a cold start
+        List<ProductCardResponse> latest = latestProductsBuffer.latest(limit);
+        if (latest == null) {
+            latest = productRepository.findLatestCards(Limit.of(limit));
+        }
+        return latest.stream()
+                .map(pricingEngine::price)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<ProductResponse> getProductsLowInStock(int threshold) {
         return productRepository.findProductsLowInStock(threshold).stream()
-                .map(product -> {
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    response.setAverageRating(calculateAverageRating(product.getProductId()));
-                    return response;
-                })
+                .map(ProductResponse::fromEntity)
                 .collect(Collectors.toList());
     }
 
@@ -149,27 +252,15 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Admin", "id", adminId));
 
         return productRepository.findByAdminAdminId(adminId).stream()
-                .map(product -> {
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    response.setAverageRating(calculateAverageRating(product.getProductId()));
-                    return response;
-                })
+                .map(ProductResponse::fromEntity)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest productRequest) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is admin
-        Admin admin = adminRepository.findByUserEmail(user.getEmail());
-        if (admin == null) {
-            throw new UnauthorizedException("Only admins can update products");
-        }
+        // Current admin from the token claims
+        Admin admin = currentPrincipal.requireAdmin("Only admins can update products");
 
         // Find product
         Product product = productRepository.findById(id)
@@ -177,13 +268,16 @@ public class ProductServiceImpl implements ProductService {
 
         // Check if admin is the owner of the product or is super admin with ROLE_ADMIN
         if (!product.getAdmin().getAdminId().equals(admin.getAdminId()) &&
-                !authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                !currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("You can only update your own products");
         }
 
         // Find category
         Category category = categoryRepository.findById(productRequest.getCategoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", productRequest.getCategoryId()));        // Update product
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", productRequest.getCategoryId()));
+        boolean recategorized = !category.getCategoryId().equals(product.getCategory().getCategoryId());
+
+        // Update product
         product.setProductName(productRequest.getProductName());
         product.setPrice(productRequest.getPrice());
         product.setIsAvailable(productRequest.getIsAvailable());
@@ -196,26 +290,18 @@ public class ProductServiceImpl implements ProductService {
 
         // Save product
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(updatedProduct.getProductId(), recategorized
+                ? ProductChangedEvent.ChangeType.RECATEGORIZED : ProductChangedEvent.ChangeType.UPDATED));
 
         // Return response
-        ProductResponse response = ProductResponse.fromEntity(updatedProduct);
-        response.setAverageRating(calculateAverageRating(updatedProduct.getProductId()));
-        return response;
+        return ProductResponse.fromEntity(updatedProduct);
     }
 
     @Override
     @Transactional
     public ApiResponse deleteProduct(Long id) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is admin
-        Admin admin = adminRepository.findByUserEmail(user.getEmail());
-        if (admin == null) {
-            throw new UnauthorizedException("Only admins can delete products");
-        }
+        // Current admin from the token claims
+        Admin admin = currentPrincipal.requireAdmin("Only admins can delete products");
 
         // Find product
         Product product = productRepository.findById(id)
@@ -223,7 +309,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Check if admin is the owner of the product or is super admin with ROLE_ADMIN
         if (!product.getAdmin().getAdminId().equals(admin.getAdminId()) &&
-                !authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                !currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("You can only delete your own products");
         }
 
@@ -234,6 +320,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Delete product
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangedEvent.ChangeType.DELETED));
 
         return new ApiResponse(true, "Product deleted successfully");
     }
@@ -241,16 +328,8 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional
     public ProductResponse addProductImage(Long productId, MultipartFile imageFile, Boolean isMain) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is admin
-        Admin admin = adminRepository.findByUserEmail(user.getEmail());
-        if (admin == null) {
-            throw new UnauthorizedException("Only admins can add product images");
-        }
+        // Current admin from the token claims
+        Admin admin = currentPrincipal.requireAdmin("Only admins can add product images");
 
         // Find product
         Product product = productRepository.findById(productId)
@@ -258,7 +337,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Check if admin is the owner of the product or is super admin with ROLE_ADMIN
         if (!product.getAdmin().getAdminId().equals(admin.getAdminId()) &&
-                !authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                !currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("You can only add images to your own products");
         }
 
@@ -283,26 +362,17 @@ public class ProductServiceImpl implements ProductService {
 
         // Save product image
         productImageRepository.save(productImage);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.UPDATED));
 
         // Return updated product
-        ProductResponse response = ProductResponse.fromEntity(product);
-        response.setAverageRating(calculateAverageRating(productId));
-        return response;
+        return ProductResponse.fromEntity(product);
     }
 
     @Override
     @Transactional
     public ProductResponse addProductImageByUrl(Long productId, String imageUrl, Boolean isMain) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is admin
-        Admin admin = adminRepository.findByUserEmail(user.getEmail());
-        if (admin == null) {
-            throw new UnauthorizedException("Only admins can add product images");
-        }
+        // Current admin from the token claims
+        Admin admin = currentPrincipal.requireAdmin("Only admins can add product images");
 
         // Find product
         Product product = productRepository.findById(productId)
@@ -310,7 +380,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Check if admin is the owner of the product or is super admin with ROLE_ADMIN
         if (!product.getAdmin().getAdminId().equals(admin.getAdminId()) &&
-                !authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                !currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("You can only add images to your own products");
         }
 
@@ -332,26 +402,17 @@ public class ProductServiceImpl implements ProductService {
 
         // Save product image
         productImageRepository.save(productImage);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.UPDATED));
 
         // Return updated product
-        ProductResponse response = ProductResponse.fromEntity(product);
-        response.setAverageRating(calculateAverageRating(productId));
-        return response;
+        return ProductResponse.fromEntity(product);
     }
 
     @Override
     @Transactional
     public ApiResponse deleteProductImage(Long imageId) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is admin
-        Admin admin = adminRepository.findByUserEmail(user.getEmail());
-        if (admin == null) {
-            throw new UnauthorizedException("Only admins can delete product images");
-        }
+        // Current admin from the token claims
+        Admin admin = currentPrincipal.requireAdmin("Only admins can delete product images");
 
         // Find product image
         ProductImage image = productImageRepository.findById(imageId)
@@ -359,7 +420,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Check if admin is the owner of the product or is super admin with ROLE_ADMIN
         if (!image.getProduct().getAdmin().getAdminId().equals(admin.getAdminId()) &&
-                !authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                !currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("You can only delete images of your own products");
         }
 
@@ -368,6 +429,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Delete product image
         productImageRepository.delete(image);
+        eventPublisher.publishEvent(new ProductChangedEvent(image.getProduct().getProductId(), ProductChangedEvent.ChangeType.UPDATED));
 
         return new ApiResponse(true, "Product image deleted successfully");
     }
@@ -375,16 +437,8 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional
     public ApiResponse setMainProductImage(Long imageId) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is admin
-        Admin admin = adminRepository.findByUserEmail(user.getEmail());
-        if (admin == null) {
-            throw new UnauthorizedException("Only admins can set main product images");
-        }
+        // Current admin from the token claims
+        Admin admin = currentPrincipal.requireAdmin("Only admins can set main product images");
 
         // Find product image
         ProductImage image = productImageRepository.findById(imageId)
@@ -392,7 +446,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Check if admin is the owner of the product or is super admin with ROLE_ADMIN
         if (!image.getProduct().getAdmin().getAdminId().equals(admin.getAdminId()) &&
-                !authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                !currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("You can only set main images for your own products");
         }
 
@@ -405,22 +459,17 @@ public class ProductServiceImpl implements ProductService {
 
         // Set new main image
         image.setIsMain(true);
-        productImageRepository.save(image);        return new ApiResponse(true, "Main product image set successfully");
+        productImageRepository.save(image);
+        eventPublisher.publishEvent(new ProductChangedEvent(image.getProduct().getProductId(), ProductChangedEvent.ChangeType.UPDATED));
+
+        return new ApiResponse(true, "Main product image set successfully");
     }
 
     @Override
     @Transactional
     public ApiResponse deleteProductImageByUrl(Long productId, String imageUrl) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is admin
-        Admin admin = adminRepository.findByUserEmail(user.getEmail());
-        if (admin == null) {
-            throw new UnauthorizedException("Only admins can delete product images");
-        }
+        // Current admin from the token claims
+        Admin admin = currentPrincipal.requireAdmin("Only admins can delete product images");
 
         // Find product to verify ownership
         Product product = productRepository.findById(productId)
@@ -428,7 +477,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Check if admin is the owner of the product or is super admin with ROLE_ADMIN
         if (!product.getAdmin().getAdminId().equals(admin.getAdminId()) &&
-                !authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                !currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("You can only delete images of your own products");
         }
 
@@ -443,12 +492,8 @@ public class ProductServiceImpl implements ProductService {
 
         // Delete product image
         productImageRepository.delete(image);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.UPDATED));
 
         return new ApiResponse(true, "Product image deleted successfully");
     }
-
-    // Helper method to calculate average rating
-    private Double calculateAverageRating(Long productId) {
-        return productReviewRepository.findAverageRatingByProductId(productId);
-    }
 }
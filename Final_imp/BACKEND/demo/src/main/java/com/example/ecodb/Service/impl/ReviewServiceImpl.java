@@ -3,28 +3,37 @@ package com.example.ecodb.Service.impl;
 import com.example.ecodb.Model.Customer;
 import com.example.ecodb.Model.Product;
 import com.example.ecodb.Model.ProductReview;
-import com.example.ecodb.Model.User;
-import com.example.ecodb.Repository.CustomerRepository;
 import com.example.ecodb.Repository.ProductRepository;
 import com.example.ecodb.Repository.ProductReviewRepository;
-import com.example.ecodb.Repository.UserRepository;
+import com.example.ecodb.Repository.RatingAggregate;
 import com.example.ecodb.Service.ReviewService;
 import com.example.ecodb.dto.request.ReviewRequest;
 import com.example.ecodb.dto.response.ApiResponse;
+import com.example.ecodb.dto.response.CursorPageResponse;
 import com.example.ecodb.dto.response.ReviewResponse;
+import com.example.ecodb.event.ProductChangedEvent;
 import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
 import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.readmodel.RatingAggregateReconciler;
+import com.example.ecodb.security.CurrentPrincipal;
+import com.example.ecodb.util.AppConstants;
+import com.example.ecodb.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,8 +42,9 @@ public class ReviewServiceImpl implements ReviewService {
 
     private final ProductReviewRepository productReviewRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
-    private final CustomerRepository customerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CurrentPrincipal currentPrincipal;
+    private final RatingAggregateReconciler ratingAggregateReconciler;
 
     @Override
     @Transactional
@@ -65,6 +75,11 @@ public class ReviewServiceImpl implements ReviewService {
         // Save review
         ProductReview savedReview = productReviewRepository.save(review);
         
+        // Add the review to the product's rating aggregates
+        productRepository.adjustRatingAggregates(product.getProductId(),
+                savedReview.getRating(), 1, recommendedDelta(savedReview.getRecommended()));
+        publishRatingChanged(product.getProductId());
+        
         return ReviewResponse.fromEntity(savedReview);
     }
 
@@ -92,6 +107,29 @@ public class ReviewServiceImpl implements ReviewService {
         return new PageImpl<>(reviewResponses, pageable, reviews.getTotalElements());
     }
 
+    @Override
+    public CursorPageResponse<ReviewResponse> scrollProductReviews(Long productId, String cursor, int size) {
+        // Check if product exists
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        
+        int pageSize = Math.min(Math.max(size, 1), AppConstants.MAX_CURSOR_PAGE_SIZE);
+        
+        // Seek past the last review of the previous page; one extra row tells whether there is a next page
+        List<ProductReview> reviews;
+        if (cursor == null || cursor.isBlank()) {
+            reviews = productReviewRepository.findProductReviewsFirstPage(productId, Limit.of(pageSize + 1));
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            reviews = productReviewRepository.findProductReviewsAfter(productId,
+                    position.getTimestamp(), position.getId(), Limit.of(pageSize + 1));
+        }
+        
+        return CursorPageResponse.of(reviews, pageSize, ReviewResponse::fromEntity,
+                review -> CursorCodec.encode(review.getReviewDate(), review.getReviewId()));
+    }
+
     @Override
     public List<ReviewResponse> getCurrentUserReviews() {
         // Get current authenticated user
@@ -107,23 +145,19 @@ public class ReviewServiceImpl implements ReviewService {
 
     @Override
     public Double calculateProductAverageRating(Long productId) {
-        // Check if product exists
-        if (!productRepository.existsById(productId)) {
-            throw new ResourceNotFoundException("Product", "id", productId);
-        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
         
-        Double averageRating = productReviewRepository.findAverageRatingByProductId(productId);
+        Double averageRating = product.getAverageRating();
         return averageRating != null ? averageRating : 0.0;
     }
 
     @Override
     public Long countProductRecommendations(Long productId) {
-        // Check if product exists
-        if (!productRepository.existsById(productId)) {
-            throw new ResourceNotFoundException("Product", "id", productId);
-        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
         
-        Long recommendationCount = productReviewRepository.countRecommendedByProductId(productId);
+        Long recommendationCount = product.getRecommendedCount();
         return recommendationCount != null ? recommendationCount : 0L;
     }
 
@@ -142,6 +176,10 @@ public class ReviewServiceImpl implements ReviewService {
             throw new UnauthorizedException("You do not have permission to update this review");
         }
         
+        // Remember the previous rating so the aggregates can be adjusted by the difference
+        int previousRating = review.getRating();
+        long previousRecommended = recommendedDelta(review.getRecommended());
+        
         // Update review fields
         review.setTitle(reviewRequest.getTitle());
         review.setReviewText(reviewRequest.getReviewText());
@@ -151,6 +189,11 @@ public class ReviewServiceImpl implements ReviewService {
         // Save updated review
         ProductReview updatedReview = productReviewRepository.save(review);
         
+        productRepository.adjustRatingAggregates(updatedReview.getProduct().getProductId(),
+                updatedReview.getRating() - previousRating, 0,
+                recommendedDelta(updatedReview.getRecommended()) - previousRecommended);
+        publishRatingChanged(updatedReview.getProduct().getProductId());
+        
         return ReviewResponse.fromEntity(updatedReview);
     }
 
@@ -169,23 +212,60 @@ public class ReviewServiceImpl implements ReviewService {
             throw new UnauthorizedException("You do not have permission to delete this review");
         }
         
-        // Delete the review
+        // Delete the review and remove it from the product's rating aggregates
         productReviewRepository.delete(review);
+        productRepository.adjustRatingAggregates(review.getProduct().getProductId(),
+                -review.getRating(), -1, -recommendedDelta(review.getRecommended()));
+        publishRatingChanged(review.getProduct().getProductId());
         
         return new ApiResponse(true, "Review deleted successfully");
     }
-    
-    // Helper method to get current customer
-    private Customer getCurrentCustomer() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
+
+    @Override
+    public ApiResponse rebuildRatingAggregates() {
+        // Recompute the aggregates from the reviews themselves
+        Map<Long, RatingAggregate> actual = productReviewRepository.aggregateRatingsByProduct().stream()
+                .collect(Collectors.toMap(RatingAggregate::getProductId, Function.identity()));
         
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can manage reviews");
+        // Compare with the stored aggregates; products that look drifted are re-checked and
+        // corrected under the product row lock, so concurrent review writes are not lost
+        List<Long> driftedProductIds = new ArrayList<>();
+        List<RatingAggregate> stored = productRepository.findAllRatingAggregates();
+        for (RatingAggregate current : stored) {
+            RatingAggregate expected = actual.get(current.getProductId());
+            long ratingSum = expected != null ? expected.getRatingSum() : 0L;
+            long ratingCount = expected != null ? expected.getRatingCount() : 0L;
+            long recommendedCount = expected != null ? expected.getRecommendedCount() : 0L;
+            
+            if ((!Objects.equals(current.getRatingSum(), ratingSum) ||
+                    !Objects.equals(current.getRatingCount(), ratingCount) ||
+                    !Objects.equals(current.getRecommendedCount(), recommendedCount)) &&
+                    ratingAggregateReconciler.reconcile(current.getProductId())) {
+                driftedProductIds.add(current.getProductId());
+            }
         }
         
-        return customer;
+        Map<String, Object> report = new HashMap<>();
+        report.put("productsChecked", stored.size());
+        report.put("productsCorrected", driftedProductIds.size());
+        report.put("correctedProductIds", driftedProductIds);
+        
+        return new ApiResponse(true, "Rating aggregates rebuilt successfully", report);
+    }
+    
+    // Helper method to let the product indexes pick up the new average rating
+    private void publishRatingChanged(Long productId) {
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.UPDATED));
+    }
+    
+    // Helper method to count a recommendation in the aggregates
+    private long recommendedDelta(Boolean recommended) {
+        return Boolean.TRUE.equals(recommended) ? 1 : 0;
+    }
+    
+    // Helper method to get current customer
+    private Customer getCurrentCustomer() {
+        // Customer id comes from the token claims
+        return currentPrincipal.requireCustomer("Only customers can manage reviews");
     }
 }
@@ -1,13 +1,9 @@
 package com.example.ecodb.Service.impl;
 
-import com.example.ecodb.Model.Customer;
 import com.example.ecodb.Model.Order;
 import com.example.ecodb.Model.Shipment;
-import com.example.ecodb.Model.User;
-import com.example.ecodb.Repository.CustomerRepository;
 import com.example.ecodb.Repository.OrderRepository;
 import com.example.ecodb.Repository.ShipmentRepository;
-import com.example.ecodb.Repository.UserRepository;
 import com.example.ecodb.Service.ShipmentService;
 import com.example.ecodb.dto.request.ShipmentCreateRequest;
 import com.example.ecodb.dto.request.ShipmentUpdateRequest;
@@ -16,10 +12,9 @@ import com.example.ecodb.dto.response.ShipmentResponse;
 import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
 import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.readmodel.OrderSummaryProjector;
+import com.example.ecodb.security.CurrentPrincipal;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,17 +29,14 @@ public class ShipmentServiceImpl implements ShipmentService {
 
     private final ShipmentRepository shipmentRepository;
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
-    private final CustomerRepository customerRepository;
+    private final CurrentPrincipal currentPrincipal;
+    private final OrderSummaryProjector orderSummaryProjector;
 
     @Override
     @Transactional
     public ShipmentResponse createShipment(ShipmentCreateRequest shipmentCreateRequest) {
         // Only admins can manually create shipments
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can manually create shipments");
         }
         
@@ -85,24 +77,21 @@ public class ShipmentServiceImpl implements ShipmentService {
                 .build();
         
         Shipment savedShipment = shipmentRepository.save(shipment);
+        order.setShipment(savedShipment);
+        
+        // The order history document embeds the shipment
+        orderSummaryProjector.project(order.getOrderId());
         return ShipmentResponse.fromEntity(savedShipment);
     }
 
     @Override
     public ShipmentResponse getShipmentByOrderId(Long orderId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-        
         // Check if order exists
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
         
         // Check if user is admin or the order belongs to the authenticated customer
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        
-        if (!isAdmin && (customer == null || !order.getCustomer().getCustomerId().equals(customer.getCustomerId()))) {
+        if (!currentPrincipal.isAdmin() && !currentPrincipal.isCustomer(order.getCustomer().getCustomerId())) {
             throw new UnauthorizedException("You do not have permission to view this shipment");
         }
         
@@ -114,18 +103,11 @@ public class ShipmentServiceImpl implements ShipmentService {
 
     @Override
     public ShipmentResponse getShipmentById(Long shipmentId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-        
         Shipment shipment = shipmentRepository.findById(shipmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Shipment", "id", shipmentId));
         
         // Check if user is admin or the shipment belongs to the authenticated customer
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        
-        if (!isAdmin && (customer == null || !shipment.getOrder().getCustomer().getCustomerId().equals(customer.getCustomerId()))) {
+        if (!currentPrincipal.isAdmin() && !currentPrincipal.isCustomer(shipment.getOrder().getCustomer().getCustomerId())) {
             throw new UnauthorizedException("You do not have permission to view this shipment");
         }
         
@@ -135,10 +117,7 @@ public class ShipmentServiceImpl implements ShipmentService {
     @Override
     public List<ShipmentResponse> getAllShipments() {
         // Only admins can view all shipments
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can view all shipments");
         }
         
@@ -151,10 +130,7 @@ public class ShipmentServiceImpl implements ShipmentService {
     @Override
     public List<ShipmentResponse> getDeliveredShipments(Boolean isDelivered) {
         // Only admins can filter shipments
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can filter shipments");
         }
         
@@ -175,18 +151,11 @@ public class ShipmentServiceImpl implements ShipmentService {
         }
         
         // Check permissions
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-        
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             // Filter out shipments that don't belong to the customer
-            Customer customer = customerRepository.findByUserEmail(user.getEmail());
-            if (customer != null) {
+            if (currentPrincipal.getCustomerId() != null) {
                 shipments = shipments.stream()
-                        .filter(shipment -> shipment.getOrder().getCustomer().getCustomerId().equals(customer.getCustomerId()))
+                        .filter(shipment -> currentPrincipal.isCustomer(shipment.getOrder().getCustomer().getCustomerId()))
                         .collect(Collectors.toList());
             } else {
                 return List.of(); // Not a customer, return empty list
@@ -202,10 +171,7 @@ public class ShipmentServiceImpl implements ShipmentService {
     @Transactional
     public ShipmentResponse updateShipment(Long shipmentId, ShipmentUpdateRequest shipmentUpdateRequest) {
         // Only admins can update shipments
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can update shipments");
         }
         
@@ -244,6 +210,9 @@ public class ShipmentServiceImpl implements ShipmentService {
         }
         
         Shipment updatedShipment = shipmentRepository.save(shipment);
+        
+        // The order history document embeds the shipment
+        orderSummaryProjector.project(updatedShipment.getOrder().getOrderId());
         return ShipmentResponse.fromEntity(updatedShipment);
     }
 
@@ -251,10 +220,7 @@ public class ShipmentServiceImpl implements ShipmentService {
     @Transactional
     public ApiResponse markShipmentAsDelivered(Long shipmentId) {
         // Only admins can mark shipments as delivered
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        
-        if (!isAdmin) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admins can mark shipments as delivered");
         }
         
@@ -269,6 +235,7 @@ public class ShipmentServiceImpl implements ShipmentService {
         Order order = shipment.getOrder();
         order.setOrderStatus(Order.OrderStatus.Delivered);
         orderRepository.save(order);
+        orderSummaryProjector.project(order.getOrderId());
         
         return new ApiResponse(true, "Shipment marked as delivered successfully");
     }
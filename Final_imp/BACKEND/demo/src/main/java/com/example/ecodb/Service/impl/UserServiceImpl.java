@@ -10,9 +10,9 @@ import com.example.ecodb.dto.response.UserResponse;
 import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
 import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.security.CurrentPrincipal;
+import com.example.ecodb.security.TokenVersionRegistry;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +25,8 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CurrentPrincipal currentPrincipal;
 
     @Override
     public UserResponse getUserById(Long id) {
@@ -40,9 +42,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public List<UserResponse> getAllUsers() {
         // Only admin can get all users
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (!authentication.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+        if (!currentPrincipal.isAdmin()) {
             throw new UnauthorizedException("Only admin can access all users");
         }
         
@@ -71,6 +71,9 @@ public class UserServiceImpl implements UserService {
             throw new BadRequestException("Phone number is already in use");
         }
 
+        // Tokens carry the email, so a new email or password signs the user out everywhere
+        boolean revokeTokens = !user.getEmail().equals(registerRequest.getEmail());
+
         // Update user fields
         user.setFirstName(registerRequest.getFirstName());
         user.setLastName(registerRequest.getLastName());
@@ -80,10 +83,18 @@ public class UserServiceImpl implements UserService {
         // Update password if provided
         if (registerRequest.getPassword() != null && !registerRequest.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+            revokeTokens = true;
+        }
+
+        if (revokeTokens) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
         }
 
         // Save updated user
         User updatedUser = userRepository.save(user);
+        if (revokeTokens) {
+            tokenVersionRegistry.invalidate(updatedUser.getId());
+        }
         
         return UserResponse.fromEntity(updatedUser);
     }
@@ -94,44 +105,26 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
         
         // Check if current user has permission to delete this user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (!authentication.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")) && 
-                !authentication.getName().equals(user.getEmail())) {
+        if (!currentPrincipal.isAdmin() && !user.getId().equals(currentPrincipal.getUserId())) {
             throw new UnauthorizedException("You don't have permission to delete this user");
         }
         
-        // Delete user
+        // Delete user; outstanding tokens stop working once the cached version is dropped
         userRepository.delete(user);
+        tokenVersionRegistry.invalidate(user.getId());
         
         return new ApiResponse(true, "User deleted successfully");    }
     
     @Override
     public UserResponse getCurrentUserProfile() {
-        // Get current authentication
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new UnauthorizedException("User not authenticated");
-        }
-
-        // Get user from database
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", authentication.getName()));
+        // Get current user by the id in the token claims
+        User user = currentPrincipal.getUser();
 
         return UserResponse.fromEntity(user);
     }    @Override
     public UserResponse updateCurrentUserProfile(ProfileUpdateRequest profileUpdateRequest) {
-        // Get current authentication
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new UnauthorizedException("User not authenticated");
-        }
-
-        // Get current user from database
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", authentication.getName()));
+        // Get current user by the id in the token claims
+        User user = currentPrincipal.getUser();
 
         // Check if email is already in use by another user
         if (!user.getEmail().equals(profileUpdateRequest.getEmail()) &&
@@ -143,7 +136,12 @@ public class UserServiceImpl implements UserService {
         if (!user.getPhone().equals(profileUpdateRequest.getPhone()) &&
                 userRepository.existsByPhone(profileUpdateRequest.getPhone())) {
             throw new BadRequestException("Phone number is already in use");
-        }        // Update user fields
+        }
+
+        // Tokens carry the email, so a new email or password signs the user out everywhere
+        boolean revokeTokens = !user.getEmail().equals(profileUpdateRequest.getEmail());
+
+        // Update user fields
         user.setFirstName(profileUpdateRequest.getFirstName());
         user.setLastName(profileUpdateRequest.getLastName());
         user.setEmail(profileUpdateRequest.getEmail());
@@ -159,22 +157,25 @@ public class UserServiceImpl implements UserService {
                 }
             }
             user.setPassword(passwordEncoder.encode(profileUpdateRequest.getPassword()));
+            revokeTokens = true;
+        }
+
+        if (revokeTokens) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
         }
 
         // Save updated user
         User updatedUser = userRepository.save(user);
+        if (revokeTokens) {
+            tokenVersionRegistry.invalidate(updatedUser.getId());
+        }
         
         return UserResponse.fromEntity(updatedUser);
     }
     
     // Helper method to check if current user has permission to access/modify user data
     private void checkPermission(User user) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-        boolean isSameUser = authentication.getName().equals(user.getEmail());
-        
-        if (!isAdmin && !isSameUser) {
+        if (!currentPrincipal.isAdmin() && !user.getId().equals(currentPrincipal.getUserId())) {
             throw new UnauthorizedException("You don't have permission to access this user's data");
         }
     }
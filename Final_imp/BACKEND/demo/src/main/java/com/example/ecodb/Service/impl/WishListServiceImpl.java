@@ -2,11 +2,8 @@ package com.example.ecodb.Service.impl;
 
 import com.example.ecodb.Model.Customer;
 import com.example.ecodb.Model.Product;
-import com.example.ecodb.Model.User;
 import com.example.ecodb.Model.WishList;
-import com.example.ecodb.Repository.CustomerRepository;
 import com.example.ecodb.Repository.ProductRepository;
-import com.example.ecodb.Repository.UserRepository;
 import com.example.ecodb.Repository.WishListRepository;
 import com.example.ecodb.Service.CartService;
 import com.example.ecodb.Service.WishListService;
@@ -15,10 +12,8 @@ import com.example.ecodb.dto.response.ApiResponse;
 import com.example.ecodb.dto.response.WishListResponse;
 import com.example.ecodb.exception.BadRequestException;
 import com.example.ecodb.exception.ResourceNotFoundException;
-import com.example.ecodb.exception.UnauthorizedException;
+import com.example.ecodb.security.CurrentPrincipal;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,10 +25,9 @@ import java.util.stream.Collectors;
 public class WishListServiceImpl implements WishListService {
 
     private final WishListRepository wishListRepository;
-    private final UserRepository userRepository;
-    private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
     private final CartService cartService;
+    private final CurrentPrincipal currentPrincipal;
 
     @Override
     public List<WishListResponse> getCurrentUserWishList() {
@@ -134,17 +128,7 @@ public class WishListServiceImpl implements WishListService {
 
     // Helper method to get current customer
     private Customer getCurrentCustomer() {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
-                .orElseThrow(() -> new UnauthorizedException("User not found"));
-
-        // Check if user is a customer
-        Customer customer = customerRepository.findByUserEmail(user.getEmail());
-        if (customer == null) {
-            throw new UnauthorizedException("Only customers can access wish lists");
-        }
-
-        return customer;
+        // Customer id comes from the token claims
+        return currentPrincipal.requireCustomer("Only customers can access wish lists");
     }
 }
@@ -0,0 +1,183 @@
+package com.example.ecodb.analytics;
+
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OrderRollup;
+import com.example.ecodb.Repository.CategoryRevenue;
+import com.example.ecodb.Repository.OrderItemRepository;
+import com.example.ecodb.Repository.OrderRepository;
+import com.example.ecodb.Repository.OrderRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers the order analytics from the rollups.
+ * A range is split into whole days and whole hours read from the rollup buckets, plus the
+ * sub-hour edges and a short live tail before now read from the orders table. The tail covers
+ * orders whose rollup update may still be waiting in the outbox, so a year of data costs a few
+ * small indexed queries.
+ */
+@Component
+public class OrderAnalytics {
+
+    private final OrderRollupRepository orderRollupRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderRollupWriter orderRollupWriter;
+    private final Duration liveTail;
+
+    public OrderAnalytics(OrderRollupRepository orderRollupRepository,
+                          OrderRepository orderRepository,
+                          OrderItemRepository orderItemRepository,
+                          OrderRollupWriter orderRollupWriter,
+                          @Value("${app.analytics.live-tail:PT5M}") Duration liveTail) {
+        this.orderRollupRepository = orderRollupRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderRollupWriter = orderRollupWriter;
+        this.liveTail = liveTail;
+    }
+
+    // Revenue of completed orders created between the two times, both inclusive
+    public double revenue(LocalDateTime startDate, LocalDateTime endDate) {
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Segment segment : plan(startDate, endDate)) {
+            if (segment.granularity == null) {
+                revenue = revenue.add(BigDecimal.valueOf(
+                        orderRepository.sumRevenueBetween(segment.from, segment.to, Order.PaymentStatus.Completed)));
+            } else {
+                revenue = revenue.add(orderRollupRepository.sumRevenue(
+                        segment.granularity, segment.from, segment.to, Order.PaymentStatus.Completed));
+            }
+        }
+        return revenue.doubleValue();
+    }
+
+    // Orders created between the two times, both inclusive
+    public long orderCount(LocalDateTime startDate, LocalDateTime endDate) {
+        long count = 0;
+        for (Segment segment : plan(startDate, endDate)) {
+            count += segment.granularity == null
+                    ? orderRepository.countCreatedBetween(segment.from, segment.to)
+                    : orderRollupRepository.sumOrderCount(segment.granularity, segment.from, segment.to);
+        }
+        return count;
+    }
+
+    // Revenue of completed orders per category id
+    public Map<Long, Double> revenueByCategory(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<Long, BigDecimal> revenue = new HashMap<>();
+        for (Segment segment : plan(startDate, endDate)) {
+            List<CategoryRevenue> rows = segment.granularity == null
+                    ? orderItemRepository.sumRevenueByCategoryBetween(segment.from, segment.to, Order.PaymentStatus.Completed)
+                    : orderRollupRepository.sumRevenueByCategory(segment.granularity, segment.from, segment.to,
+                            Order.PaymentStatus.Completed);
+            for (CategoryRevenue row : rows) {
+                revenue.merge(row.getCategoryId(), new BigDecimal(row.getRevenue().toString()), BigDecimal::add);
+            }
+        }
+
+        Map<Long, Double> result = new HashMap<>();
+        revenue.forEach((categoryId, amount) -> result.put(categoryId, amount.doubleValue()));
+        return result;
+    }
+
+    private List<Segment> plan(LocalDateTime startDate, LocalDateTime endDate) {
+        // Until the existing orders are rolled up, everything is read live
+        if (!orderRollupWriter.isReady()) {
+            return plan(startDate, endDate, LocalDateTime.MIN);
+        }
+        return plan(startDate, endDate, LocalDateTime.now().minus(liveTail).truncatedTo(ChronoUnit.HOURS));
+    }
+
+    // Splits [startDate, endDate] into rollup buckets and live ranges, reading everything from
+    // tailStart on live; segment ends are exclusive
+    static List<Segment> plan(LocalDateTime startDate, LocalDateTime endDate, LocalDateTime tailStart) {
+        List<Segment> segments = new ArrayList<>();
+        LocalDateTime end = endDate.plusNanos(1);
+        if (!startDate.isBefore(end)) {
+            return segments;
+        }
+
+        if (end.isAfter(tailStart)) {
+            segments.add(Segment.live(max(startDate, tailStart), end));
+            end = tailStart;
+        }
+        if (!startDate.isBefore(end)) {
+            return segments;
+        }
+
+        // Partial hours at either edge are read live
+        LocalDateTime firstHour = ceil(startDate, ChronoUnit.HOURS);
+        LocalDateTime lastHour = end.truncatedTo(ChronoUnit.HOURS);
+        if (!firstHour.isBefore(lastHour)) {
+            segments.add(Segment.live(startDate, end));
+            return segments;
+        }
+        if (startDate.isBefore(firstHour)) {
+            segments.add(Segment.live(startDate, firstHour));
+        }
+        if (lastHour.isBefore(end)) {
+            segments.add(Segment.live(lastHour, end));
+        }
+
+        // Whole days from the daily buckets, the hours around them from the hourly ones
+        LocalDateTime firstDay = ceil(firstHour, ChronoUnit.DAYS);
+        LocalDateTime lastDay = lastHour.truncatedTo(ChronoUnit.DAYS);
+        if (!firstDay.isBefore(lastDay)) {
+            segments.add(Segment.rollup(OrderRollup.Granularity.HOUR, firstHour, lastHour));
+            return segments;
+        }
+        segments.add(Segment.rollup(OrderRollup.Granularity.DAY, firstDay, lastDay));
+        if (firstHour.isBefore(firstDay)) {
+            segments.add(Segment.rollup(OrderRollup.Granularity.HOUR, firstHour, firstDay));
+        }
+        if (lastDay.isBefore(lastHour)) {
+            segments.add(Segment.rollup(OrderRollup.Granularity.HOUR, lastDay, lastHour));
+        }
+        return segments;
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime truncated = time.truncatedTo(unit);
+        return truncated.equals(time) ? time : truncated.plus(1, unit);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    // Half-open time range read from the rollups at a granularity, or live when the granularity is null
+    static final class Segment {
+        final OrderRollup.Granularity granularity;
+        final LocalDateTime from;
+        final LocalDateTime to;
+
+        private Segment(OrderRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+            this.granularity = granularity;
+            this.from = from;
+            this.to = to;
+        }
+
+        private static Segment live(LocalDateTime from, LocalDateTime to) {
+            return new Segment(null, from, to);
+        }
+
+        private static Segment rollup(OrderRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+            return new Segment(granularity, from, to);
+        }
+
+        @Override
+        public String toString() {
+            return (granularity != null ? granularity.name() : "LIVE") + "[" + from + ", " + to + ")";
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.ecodb.analytics;
+
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OrderItem;
+import com.example.ecodb.Model.OrderRollup;
+import com.example.ecodb.Model.OrderRollupContribution;
+import com.example.ecodb.Model.OrderRollupState;
+import com.example.ecodb.Repository.OrderRepository;
+import com.example.ecodb.Repository.OrderRollupRepository;
+import com.example.ecodb.Repository.OrderRollupStateRepository;
+import com.example.ecodb.exception.ResourceNotFoundException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the hourly and daily order rollups up to date.
+ * An order is counted under its payment status in the buckets of its creation time. Every order
+ * has a state row recording the status it is counted under and what it added per category, so
+ * applying an order is idempotent: a new order is added, a payment status change moves exactly the
+ * recorded amounts from one status to the other, and a redelivered update finds nothing to do. Orders that predate the rollups are backfilled on
+ * startup; until then analytics are answered from the orders table.
+ */
+@Component
+public class OrderRollupWriter {
+
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    private final OrderRepository orderRepository;
+    private final OrderRollupRepository orderRollupRepository;
+    private final OrderRollupStateRepository orderRollupStateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean ready = false;
+
+    public OrderRollupWriter(OrderRepository orderRepository,
+                             OrderRollupRepository orderRollupRepository,
+                             OrderRollupStateRepository orderRollupStateRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderRollupRepository = orderRollupRepository;
+        this.orderRollupStateRepository = orderRollupStateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Expected to run inside a transaction; the order row lock serializes updates of the same order
+    public void apply(Long orderId) {
+        Order order = orderRepository.lockById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        OrderRollupState state = orderRollupStateRepository.findById(orderId).orElse(null);
+        if (state != null && state.getPaymentStatus() == order.getPaymentStatus()) {
+            return;
+        }
+
+        Map<Long, BucketDelta> deltas;
+        if (state != null) {
+            // Move exactly what was counted out of its status; products may have changed category since.
+            // Orders counted before contributions were recorded fall back to the current categories.
+            deltas = state.getContributions().isEmpty() ? deltasOf(order) : recordedDeltas(state);
+            addToBuckets(order.getCreationDate(), state.getPaymentStatus(), deltas, -1);
+        } else {
+            deltas = deltasOf(order);
+            state = OrderRollupState.builder().orderId(orderId).build();
+        }
+        addToBuckets(order.getCreationDate(), order.getPaymentStatus(), deltas, 1);
+
+        state.setPaymentStatus(order.getPaymentStatus());
+        if (state.getContributions().isEmpty()) {
+            for (Map.Entry<Long, BucketDelta> delta : deltas.entrySet()) {
+                state.getContributions().add(OrderRollupContribution.builder()
+                        .categoryId(delta.getKey())
+                        .itemsSold(delta.getValue().items)
+                        .revenue(delta.getValue().revenue)
+                        .build());
+            }
+        }
+        orderRollupStateRepository.save(state);
+    }
+
+    // Roll up orders that are not counted yet, one transaction per batch
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void backfill() {
+        long start = System.currentTimeMillis();
+        int applied = 0;
+        Long afterOrderId = 0L;
+        List<Long> orderIds;
+        do {
+            orderIds = orderRollupStateRepository.findOrderIdsWithoutState(afterOrderId, Limit.of(BACKFILL_BATCH_SIZE));
+            List<Long> batch = orderIds;
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::apply));
+            applied += orderIds.size();
+            if (!orderIds.isEmpty()) {
+                afterOrderId = orderIds.get(orderIds.size() - 1);
+            }
+        } while (orderIds.size() == BACKFILL_BATCH_SIZE);
+
+        ready = true;
+        if (applied > 0) {
+            System.out.println("Rolled up " + applied + " existing orders in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    // What the order adds to its buckets: the whole order, and its lines per category
+    private static Map<Long, BucketDelta> deltasOf(Order order) {
+        Map<Long, BucketDelta> deltas = new HashMap<>();
+        long itemsSold = 0;
+        for (OrderItem orderItem : order.getOrderItems()) {
+            Long categoryId = orderItem.getProduct().getCategory().getCategoryId();
+            BigDecimal lineTotal = BigDecimal.valueOf(orderItem.getPriceAtPurchase())
+                    .multiply(BigDecimal.valueOf(orderItem.getQuantity()));
+            deltas.computeIfAbsent(categoryId, id -> new BucketDelta()).add(orderItem.getQuantity(), lineTotal);
+            itemsSold += orderItem.getQuantity();
+        }
+
+        // Revenue over all categories is the order total, as the live queries report it
+        BucketDelta all = new BucketDelta();
+        all.add(itemsSold, BigDecimal.valueOf(order.getTotalPrice()));
+        deltas.put(OrderRollup.ALL_CATEGORIES, all);
+        return deltas;
+    }
+
+    private static Map<Long, BucketDelta> recordedDeltas(OrderRollupState state) {
+        Map<Long, BucketDelta> deltas = new HashMap<>();
+        for (OrderRollupContribution contribution : state.getContributions()) {
+            deltas.computeIfAbsent(contribution.getCategoryId(), id -> new BucketDelta())
+                    .add(contribution.getItemsSold(), contribution.getRevenue());
+        }
+        return deltas;
+    }
+
+    private void addToBuckets(LocalDateTime creationDate, Order.PaymentStatus paymentStatus,
+                              Map<Long, BucketDelta> deltas, int sign) {
+        for (OrderRollup.Granularity granularity : OrderRollup.Granularity.values()) {
+            LocalDateTime bucketStart = granularity.bucketStart(creationDate);
+            for (Map.Entry<Long, BucketDelta> delta : deltas.entrySet()) {
+                long orders = sign;
+                long items = sign * delta.getValue().items;
+                BigDecimal revenue = delta.getValue().revenue.multiply(BigDecimal.valueOf(sign));
+
+                int updated = orderRollupRepository.addToBucket(granularity, bucketStart, paymentStatus,
+                        delta.getKey(), orders, items, revenue);
+                if (updated == 0) {
+                    // First order in the bucket. Should another instance create it at the same time,
+                    // the unique key fails this transaction and the outbox retries the update.
+                    orderRollupRepository.save(OrderRollup.builder()
+                            .granularity(granularity)
+                            .bucketStart(bucketStart)
+                            .paymentStatus(paymentStatus)
+                            .categoryId(delta.getKey())
+                            .orderCount(orders)
+                            .itemsSold(items)
+                            .revenue(revenue)
+                            .build());
+                }
+            }
+        }
+    }
+
+    private static final class BucketDelta {
+        private long items;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        private void add(long quantity, BigDecimal amount) {
+            items += quantity;
+            revenue = revenue.add(amount);
+        }
+    }
+}
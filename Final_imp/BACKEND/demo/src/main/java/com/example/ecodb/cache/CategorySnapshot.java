@@ -0,0 +1,58 @@
+package com.example.ecodb.cache;
+
+import com.example.ecodb.dto.response.CategoryResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of every category with its product count.
+ * The ETag is a hash of the content, so it only changes when the categories do.
+ */
+public final class CategorySnapshot {
+
+    private final List<CategoryResponse> categories;
+    private final Map<Long, CategoryResponse> categoriesById;
+    private final String etag;
+
+    public CategorySnapshot(List<CategoryResponse> categories) {
+        Map<Long, CategoryResponse> byId = new LinkedHashMap<>();
+        StringBuilder content = new StringBuilder();
+        for (CategoryResponse category : categories) {
+            byId.put(category.getCategoryId(), category);
+            content.append(category.getCategoryId()).append('\u0000')
+                    .append(category.getCategoryName()).append('\u0000')
+                    .append(category.getProductCount()).append('\n');
+        }
+        this.categories = Collections.unmodifiableList(categories);
+        this.categoriesById = Collections.unmodifiableMap(byId);
+        this.etag = "\"" + sha256(content.toString()) + "\"";
+    }
+
+    public List<CategoryResponse> getCategories() {
+        return categories;
+    }
+
+    public CategoryResponse getCategory(Long categoryId) {
+        return categoriesById.get(categoryId);
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.ecodb.cache;
+
+import com.example.ecodb.Model.Category;
+import com.example.ecodb.Repository.CategoryProductCount;
+import com.example.ecodb.Repository.CategoryRepository;
+import com.example.ecodb.Repository.ProductRepository;
+import com.example.ecodb.dto.response.CategoryResponse;
+import com.example.ecodb.event.CategoryChangedEvent;
+import com.example.ecodb.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+// Holds the current category snapshot; readers never touch the database while it is valid
+@Component
+@RequiredArgsConstructor
+public class CategorySnapshotCache {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+
+    private final AtomicReference<CategorySnapshot> current = new AtomicReference<>();
+    // Held while rebuilding, so readers arriving on an empty cache wait for one rebuild instead of each running it
+    private final Object rebuildLock = new Object();
+    // Bumped on every invalidation so a rebuild that raced with one is not published
+    private long version = 0;
+
+    public CategorySnapshot get() {
+        CategorySnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        synchronized (rebuildLock) {
+            snapshot = current.get();
+            return snapshot != null ? snapshot : rebuild();
+        }
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        current.set(null);
+    }
+
+    // Category writes swap in a new snapshot right away
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidate();
+        get();
+    }
+
+    // Only products added, removed or moved between categories change the counts; stock, price,
+    // image and rating updates leave the snapshot as it is. It is rebuilt on the next read
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() != ProductChangedEvent.ChangeType.UPDATED) {
+            invalidate();
+        }
+    }
+
+    // Callers hold the rebuild lock
+    private CategorySnapshot rebuild() {
+        long expectedVersion;
+        synchronized (this) {
+            expectedVersion = version;
+        }
+
+        Map<Long, Long> productCounts = productRepository.countProductsByCategory().stream()
+                .collect(Collectors.toMap(CategoryProductCount::getCategoryId, CategoryProductCount::getProductCount));
+        List<CategoryResponse> categories = categoryRepository.findAllByOrderByCategoryIdAsc().stream()
+                .map(category -> toResponse(category, productCounts))
+                .collect(Collectors.toList());
+        CategorySnapshot snapshot = new CategorySnapshot(categories);
+
+        synchronized (this) {
+            if (version == expectedVersion) {
+                current.set(snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    private static CategoryResponse toResponse(Category category, Map<Long, Long> productCounts) {
+        return CategoryResponse.builder()
+                .categoryId(category.getCategoryId())
+                .categoryName(category.getCategoryName())
+                .productCount(productCounts.getOrDefault(category.getCategoryId(), 0L).intValue())
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.ecodb.cache;
+
+import com.example.ecodb.Repository.ProductRepository;
+import com.example.ecodb.dto.response.ProductCardResponse;
+import com.example.ecodb.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Ring buffer of the newest product cards, newest first.
+ * It always holds the newest {@code size} products, so any request for at most that many
+ * is answered from memory. Writers keep it current after commit; readers only see an
+ * immutable copy published after every change.
+ */
+@Component
+public class LatestProductsBuffer {
+
+    private final ProductRepository productRepository;
+    private final int capacity;
+
+    private final ProductCardResponse[] slots;
+    // Slot of the newest card
+    private int head = 0;
+    private int size = 0;
+    private boolean loaded = false;
+
+    private volatile List<ProductCardResponse> snapshot = null;
+
+    public LatestProductsBuffer(ProductRepository productRepository,
+                                @Value("${app.cache.latest-products.capacity:50}") int capacity) {
+        this.productRepository = productRepository;
+        this.capacity = capacity;
+        this.slots = new ProductCardResponse[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Returns the newest cards, or null when the buffer cannot answer (cold or too few held)
+    public List<ProductCardResponse> latest(int count) {
+        List<ProductCardResponse> current = snapshot;
+        if (current == null || count > current.size()) {
+            return null;
+        }
+        return current.subList(0, count);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        List<ProductCardResponse> newest = productRepository.findLatestCards(Limit.of(capacity));
+        head = 0;
+        size = 0;
+        for (int i = newest.size() - 1; i >= 0; i--) {
+            push(newest.get(i));
+        }
+        loaded = true;
+        publish();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+
+        Long productId = event.getProductId();
+        switch (event.getChangeType()) {
+            case CREATED:
+                findCard(productId).ifPresent(this::push);
+                break;
+            case UPDATED:
+            case RECATEGORIZED:
+                // Only cards already held can change; stock, rating and images are shown on them
+                int index = indexOf(productId);
+                if (index >= 0) {
+                    ProductCardResponse card = findCard(productId).orElse(null);
+                    if (card != null) {
+                        slots[slot(index)] = card;
+                    } else {
+                        removeAt(index);
+                    }
+                }
+                break;
+            case DELETED:
+                int removed = indexOf(productId);
+                if (removed >= 0) {
+                    removeAt(removed);
+                }
+                break;
+        }
+        publish();
+    }
+
+    private Optional<ProductCardResponse> findCard(Long productId) {
+        return productRepository.findCardsByProductIdIn(List.of(productId)).stream().findFirst();
+    }
+
+    // Adds a card as the newest one, overwriting the oldest when full
+    private void push(ProductCardResponse card) {
+        head = (head - 1 + capacity) % capacity;
+        slots[head] = card;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    // Removes the card at a logical position by shifting the older cards up
+    private void removeAt(int index) {
+        for (int i = index; i < size - 1; i++) {
+            slots[slot(i)] = slots[slot(i + 1)];
+        }
+        slots[slot(size - 1)] = null;
+        size--;
+    }
+
+    private int indexOf(Long productId) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(slots[slot(i)].getProductId(), productId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int slot(int index) {
+        return (head + index) % capacity;
+    }
+
+    private void publish() {
+        List<ProductCardResponse> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            copy.add(slots[slot(i)]);
+        }
+        snapshot = Collections.unmodifiableList(copy);
+    }
+}
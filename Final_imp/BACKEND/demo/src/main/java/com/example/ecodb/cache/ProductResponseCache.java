@@ -0,0 +1,78 @@
+package com.example.ecodb.cache;
+
+import com.example.ecodb.dto.response.ProductResponse;
+import com.example.ecodb.event.CategoryChangedEvent;
+import com.example.ecodb.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of fully assembled product detail responses.
+ * Entries are evicted by size (W-TinyLFU) and age, and invalidated once a
+ * transaction that changed the product commits.
+ */
+@Component
+public class ProductResponseCache {
+
+    private final Cache<Long, ProductResponse> cache;
+
+    public ProductResponseCache(@Value("${app.cache.product.maximum-size:10000}") long maximumSize,
+                                @Value("${app.cache.product.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    // Concurrent misses for the same product share a single load
+    public ProductResponse get(Long productId, Function<Long, ProductResponse> loader) {
+        return cache.get(productId, loader);
+    }
+
+    public void invalidate(Long productId) {
+        cache.invalidate(productId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Invalidating after commit keeps a concurrent reader from caching the pre-commit state
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    // Cached responses carry the category name
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getChangeType() == CategoryChangedEvent.ChangeType.UPDATED) {
+            invalidateAll();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("requests", stats.requestCount());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        result.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+}
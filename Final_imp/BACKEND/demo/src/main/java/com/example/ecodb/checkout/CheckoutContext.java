@@ -0,0 +1,62 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.Model.Address;
+import com.example.ecodb.Model.Customer;
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.dto.request.PaymentRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// State of one checkout, filled in by the steps as the engine runs them
+@Getter
+@Setter
+public class CheckoutContext {
+
+    // Set by the entry point
+    private final Customer customer;
+    private final Long shippingAddressId;
+    private final Long billingAddressId;
+    private final PaymentRequest payment;
+    private final List<Line> requestedLines = new ArrayList<>();
+
+    // VALIDATE: addresses, quantity per product in request order and the products themselves
+    private Address shippingAddress;
+    private Address billingAddress;
+    private Map<Long, Integer> quantities = new LinkedHashMap<>();
+    private Map<Long, Product> products = new LinkedHashMap<>();
+
+    // PRICE
+    private Map<Long, Double> unitPrices = new LinkedHashMap<>();
+    private double totalPrice;
+
+    // PAY
+    private Order.PaymentStatus paymentStatus = Order.PaymentStatus.Pending;
+
+    // PERSIST
+    private Order order;
+
+    public CheckoutContext(Customer customer, Long shippingAddressId, Long billingAddressId, PaymentRequest payment) {
+        this.customer = customer;
+        this.shippingAddressId = shippingAddressId;
+        this.billingAddressId = billingAddressId;
+        this.payment = payment;
+    }
+
+    public void addLine(Long productId, Integer quantity) {
+        requestedLines.add(new Line(productId, quantity));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private final Long productId;
+        private final Integer quantity;
+    }
+}
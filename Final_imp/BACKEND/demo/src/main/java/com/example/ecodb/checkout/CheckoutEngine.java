@@ -0,0 +1,34 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.Model.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Single checkout pipeline behind every way of placing an order.
+ * Steps are beans picked up by stage, so new work is added by declaring another
+ * {@link CheckoutStep} rather than editing the entry points.
+ */
+@Component
+public class CheckoutEngine {
+
+    private final List<CheckoutStep> steps;
+
+    public CheckoutEngine(List<CheckoutStep> steps) {
+        List<CheckoutStep> ordered = new ArrayList<>(steps);
+        // Stable sort keeps steps of the same stage in bean order
+        ordered.sort(Comparator.comparing(CheckoutStep::getStage));
+        this.steps = List.copyOf(ordered);
+    }
+
+    // Expected to run inside the caller's transaction
+    public Order checkout(CheckoutContext context) {
+        for (CheckoutStep step : steps) {
+            step.apply(context);
+        }
+        return context.getOrder();
+    }
+}
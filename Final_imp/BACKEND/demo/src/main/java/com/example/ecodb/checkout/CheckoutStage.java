@@ -0,0 +1,6 @@
+package com.example.ecodb.checkout;
+
+// Stages of a checkout in the order the engine runs them
+public enum CheckoutStage {
+    VALIDATE, PRICE, RESERVE, PAY, PERSIST, FULFIL
+}
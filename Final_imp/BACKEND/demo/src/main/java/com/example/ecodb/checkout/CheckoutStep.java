@@ -0,0 +1,9 @@
+package com.example.ecodb.checkout;
+
+// One unit of checkout work. Steps run inside the checkout transaction; throwing aborts the checkout.
+public interface CheckoutStep {
+
+    CheckoutStage getStage();
+
+    void apply(CheckoutContext context);
+}
@@ -0,0 +1,42 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.Model.OutboxEvent;
+import com.example.ecodb.Model.ShoppingCart;
+import com.example.ecodb.Repository.OutboxEventRepository;
+import com.example.ecodb.Repository.ShoppingCartRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class FulfilCheckoutStep implements CheckoutStep {
+
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Override
+    public CheckoutStage getStage() {
+        return CheckoutStage.FULFIL;
+    }
+
+    @Override
+    public void apply(CheckoutContext context) {
+        Long orderId = context.getOrder().getOrderId();
+
+        // Clear cart after order is placed and reset it for future use
+        shoppingCartRepository.findByCustomerCustomerId(context.getCustomer().getCustomerId())
+                .ifPresent(cart -> {
+                    cart.getCartItems().clear();
+                    cart.setCartStatus(ShoppingCart.CartStatus.Active);
+                    shoppingCartRepository.save(cart);
+                });
+
+        // Shipment, confirmation email and analytics rollups run after commit through the outbox
+        outboxEventRepository.saveAll(List.of(
+                OutboxEvent.of(OutboxEvent.EventType.CREATE_SHIPMENT, orderId),
+                OutboxEvent.of(OutboxEvent.EventType.SEND_ORDER_CONFIRMATION, orderId),
+                OutboxEvent.of(OutboxEvent.EventType.UPDATE_ORDER_ROLLUP, orderId)));
+    }
+}
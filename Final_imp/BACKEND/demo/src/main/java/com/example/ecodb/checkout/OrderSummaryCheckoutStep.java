@@ -0,0 +1,23 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.readmodel.OrderSummaryProjector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryCheckoutStep implements CheckoutStep {
+
+    private final OrderSummaryProjector orderSummaryProjector;
+
+    @Override
+    public CheckoutStage getStage() {
+        return CheckoutStage.FULFIL;
+    }
+
+    @Override
+    public void apply(CheckoutContext context) {
+        // The new order shows up in the customer's order history as soon as checkout commits
+        orderSummaryProjector.project(context.getOrder().getOrderId());
+    }
+}
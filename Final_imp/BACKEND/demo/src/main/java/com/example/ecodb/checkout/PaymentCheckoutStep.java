@@ -0,0 +1,112 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.Model.CreditCard;
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.PaymentMethod;
+import com.example.ecodb.Repository.CreditCardRepository;
+import com.example.ecodb.dto.request.PaymentRequest;
+import com.example.ecodb.exception.BadRequestException;
+import com.example.ecodb.exception.ResourceNotFoundException;
+import com.example.ecodb.exception.UnauthorizedException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Settles the payment before the order is written, so its status goes out with the order insert
+@Component
+@RequiredArgsConstructor
+public class PaymentCheckoutStep implements CheckoutStep {
+
+    private final CreditCardRepository creditCardRepository;
+
+    @Override
+    public CheckoutStage getStage() {
+        return CheckoutStage.PAY;
+    }
+
+    @Override
+    public void apply(CheckoutContext context) {
+        try {
+            context.setPaymentStatus(processPayment(context));
+        } catch (Exception e) {
+            // Log the exception 
+            System.err.println("Error processing payment: " + e.getMessage());
+            // Default to pending if there's any error
+            context.setPaymentStatus(Order.PaymentStatus.Pending);
+        }
+    }
+
+    private Order.PaymentStatus processPayment(CheckoutContext context) {
+        PaymentRequest paymentRequest = context.getPayment();
+
+        // Check if payment request is null, default to COD
+        if (paymentRequest == null) {
+            return Order.PaymentStatus.Pending;
+        }
+
+        // In a real application, this would integrate with a payment gateway
+        // For now, we'll simulate payment processing
+
+        // Handle Cash on Delivery payment method
+        if (PaymentMethod.CASH_ON_DELIVERY.name().equals(paymentRequest.getPaymentMethod()) || paymentRequest.isCashOnDelivery()) {
+            // For COD, payment is pending until delivery
+            return Order.PaymentStatus.Pending;
+        }
+
+        // Handle Credit Card payments - using saved credit card
+        if (paymentRequest.getCreditCardId() != null) {
+            CreditCard creditCard = creditCardRepository.findById(paymentRequest.getCreditCardId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Credit card", "id", paymentRequest.getCreditCardId()));
+
+            // Verify card belongs to customer
+            if (!creditCard.getUser().getId().equals(context.getCustomer().getUser().getId())) {
+                throw new UnauthorizedException("Credit card does not belong to the current customer");
+            }
+
+            // Process payment (simulate)
+            boolean paymentSuccessful = true; // In a real app, this would be the result from payment gateway
+            if (!paymentSuccessful) {
+                throw new BadRequestException("Payment processing failed");
+            }
+            return Order.PaymentStatus.Completed;
+        }
+
+        // Handle Credit Card payments - using new credit card
+        if (PaymentMethod.CREDIT_CARD.name().equals(paymentRequest.getPaymentMethod()) && paymentRequest.getAccountNumber() != null) {
+            // Validate card details
+            if (paymentRequest.getProvider() == null || paymentRequest.getExpireDate() == null || paymentRequest.getCvv() == null) {
+                throw new BadRequestException("Incomplete credit card information");
+            }
+
+            // Process payment (simulate)
+            boolean paymentSuccessful = true; // In a real app, this would be the result from payment gateway
+            if (!paymentSuccessful) {
+                throw new BadRequestException("Payment processing failed");
+            }
+
+            // Save card if requested
+            if (Boolean.TRUE.equals(paymentRequest.getSaveCard())) {
+                // Parse expire date to LocalDateTime
+                String[] parts = paymentRequest.getExpireDate().split("/");
+                int month = Integer.parseInt(parts[0]);
+                int year = Integer.parseInt(parts[1]);
+                LocalDateTime expireDate = LocalDateTime.of(year, month, 1, 0, 0).plusMonths(1).minusDays(1);
+
+                CreditCard creditCard = CreditCard.builder()
+                        .accountNumber(paymentRequest.getAccountNumber())
+                        .provider(paymentRequest.getProvider())
+                        .expireDate(expireDate)
+                        .isDefault(false)
+                        .user(context.getCustomer().getUser())
+                        .build();
+
+                creditCardRepository.save(creditCard);
+            }
+            return Order.PaymentStatus.Completed;
+        }
+
+        // Handle unsupported payment methods or incomplete requests: default to pending instead of throwing an error
+        return Order.PaymentStatus.Pending;
+    }
+}
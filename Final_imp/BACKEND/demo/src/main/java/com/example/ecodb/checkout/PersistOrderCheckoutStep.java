@@ -0,0 +1,48 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OrderItem;
+import com.example.ecodb.Model.OrderItemId;
+import com.example.ecodb.Repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class PersistOrderCheckoutStep implements CheckoutStep {
+
+    private final OrderRepository orderRepository;
+
+    @Override
+    public CheckoutStage getStage() {
+        return CheckoutStage.PERSIST;
+    }
+
+    @Override
+    public void apply(CheckoutContext context) {
+        // Create order
+        Order order = Order.builder()
+                .totalPrice(context.getTotalPrice())
+                .orderStatus(Order.OrderStatus.Pending)
+                .paymentStatus(context.getPaymentStatus())
+                .customer(context.getCustomer())
+                .shippingAddress(context.getShippingAddress())
+                .billingAddress(context.getBillingAddress())
+                .build();
+
+        // Create order items; they take the order id when the order is saved
+        for (Map.Entry<Long, Integer> line : context.getQuantities().entrySet()) {
+            order.addOrderItem(OrderItem.builder()
+                    .id(new OrderItemId(null, line.getKey()))
+                    .product(context.getProducts().get(line.getKey()))
+                    .quantity(line.getValue())
+                    .priceAtPurchase(context.getUnitPrices().get(line.getKey()))
+                    .build());
+        }
+
+        // Save the order once; items cascade and go out as one JDBC batch
+        context.setOrder(orderRepository.save(order));
+    }
+}
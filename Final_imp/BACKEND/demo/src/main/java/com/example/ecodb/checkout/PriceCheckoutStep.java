@@ -0,0 +1,38 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.pricing.PricingEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class PriceCheckoutStep implements CheckoutStep {
+
+    private final PricingEngine pricingEngine;
+
+    @Override
+    public CheckoutStage getStage() {
+        return CheckoutStage.PRICE;
+    }
+
+    @Override
+    public void apply(CheckoutContext context) {
+        // Price every line once from the products loaded during validation, with current promotions applied
+        Map<Long, Double> unitPrices = new LinkedHashMap<>();
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : context.getQuantities().entrySet()) {
+            Product product = context.getProducts().get(line.getKey());
+            BigDecimal unitPrice = pricingEngine.unitPrice(product);
+            unitPrices.put(line.getKey(), unitPrice.doubleValue());
+            totalPrice = totalPrice.add(unitPrice.multiply(BigDecimal.valueOf(line.getValue())));
+        }
+
+        context.setUnitPrices(unitPrices);
+        context.setTotalPrice(totalPrice.doubleValue());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.Repository.ProductRepository;
+import com.example.ecodb.event.ProductChangedEvent;
+import com.example.ecodb.exception.BadRequestException;
+import com.example.ecodb.inventory.InventoryReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class ReserveStockCheckoutStep implements CheckoutStep {
+
+    private final ProductRepository productRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public CheckoutStage getStage() {
+        return CheckoutStage.RESERVE;
+    }
+
+    @Override
+    public void apply(CheckoutContext context) {
+        Long customerId = context.getCustomer().getCustomerId();
+        Map<Long, Integer> quantities = context.getQuantities();
+
+        // Take the stock for every line in one conditional batch; a short line fails the whole order.
+        // Stock held for other customers' carts stays on the shelf; the customer's own holds become the decrement.
+        List<Long> shortProductIds = productRepository.decrementStock(quantities,
+                inventoryReservationService.reservedByOthers(quantities.keySet(), customerId));
+        if (!shortProductIds.isEmpty()) {
+            throw new BadRequestException("Insufficient stock for product(s): " + shortProductIds);
+        }
+
+        inventoryReservationService.releaseAfterCommit(customerId, quantities.keySet());
+
+        quantities.keySet().forEach(productId ->
+                eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.UPDATED)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ecodb.checkout;
+
+import com.example.ecodb.Model.Address;
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Repository.AddressRepository;
+import com.example.ecodb.Repository.ProductRepository;
+import com.example.ecodb.exception.BadRequestException;
+import com.example.ecodb.exception.ResourceNotFoundException;
+import com.example.ecodb.exception.UnauthorizedException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class ValidateCheckoutStep implements CheckoutStep {
+
+    private final AddressRepository addressRepository;
+    private final ProductRepository productRepository;
+
+    @Override
+    public CheckoutStage getStage() {
+        return CheckoutStage.VALIDATE;
+    }
+
+    @Override
+    public void apply(CheckoutContext context) {
+        validateAddresses(context);
+
+        // Validate order items
+        if (context.getRequestedLines().isEmpty()) {
+            throw new BadRequestException("Order must contain at least one item");
+        }
+
+        // Merge repeated products into one line each, keeping request order
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CheckoutContext.Line line : context.getRequestedLines()) {
+            if (line.getProductId() == null) {
+                throw new BadRequestException("Product ID cannot be null");
+            }
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new BadRequestException("Quantity must be greater than zero");
+            }
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        // Load every product of the order in one query
+        Map<Long, Product> found = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (Long productId : quantities.keySet()) {
+            Product product = found.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            if (!Boolean.TRUE.equals(product.getIsAvailable())) {
+                throw new BadRequestException("Product is not available: " + product.getProductName());
+            }
+            products.put(productId, product);
+        }
+
+        context.setQuantities(quantities);
+        context.setProducts(products);
+    }
+
+    private void validateAddresses(CheckoutContext context) {
+        Long shippingAddressId = context.getShippingAddressId();
+        Long billingAddressId = context.getBillingAddressId();
+        if (shippingAddressId == null || billingAddressId == null) {
+            throw new BadRequestException("Address ID cannot be null");
+        }
+
+        // Same address for shipping and billing is loaded once
+        if (shippingAddressId.equals(billingAddressId)) {
+            Address address = addressRepository.findById(shippingAddressId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Address", "id", shippingAddressId));
+            checkOwner(context, address, "Address");
+            context.setShippingAddress(address);
+            context.setBillingAddress(address);
+            return;
+        }
+
+        Address shippingAddress = addressRepository.findById(shippingAddressId)
+                .orElseThrow(() -> new ResourceNotFoundException("Shipping address", "id", shippingAddressId));
+        Address billingAddress = addressRepository.findById(billingAddressId)
+                .orElseThrow(() -> new ResourceNotFoundException("Billing address", "id", billingAddressId));
+        checkOwner(context, shippingAddress, "Shipping address");
+        checkOwner(context, billingAddress, "Billing address");
+        context.setShippingAddress(shippingAddress);
+        context.setBillingAddress(billingAddress);
+    }
+
+    private static void checkOwner(CheckoutContext context, Address address, String label) {
+        if (!address.getCustomer().getCustomerId().equals(context.getCustomer().getCustomerId())) {
+            throw new UnauthorizedException(label + " does not belong to the current customer");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ecodb.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Shared by the @Scheduled jobs; sized by spring.task.scheduling.pool.size
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    // The outbox sends mail synchronously, so it gets a thread of its own and never delays the other jobs
+    @Bean(name = "outboxScheduler")
+    public ThreadPoolTaskScheduler outboxScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("OutboxThread-");
+        return scheduler;
+    }
+}
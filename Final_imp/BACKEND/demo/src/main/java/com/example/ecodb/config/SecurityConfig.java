@@ -1,7 +1,10 @@
 package com.example.ecodb.config;
 
+import com.example.ecodb.idempotency.IdempotencyService;
+import com.example.ecodb.security.BoundedPasswordEncoder;
 import com.example.ecodb.security.JwtAuthenticationEntryPoint;
 import com.example.ecodb.security.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -54,6 +57,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/products/*").permitAll() // Allow public access to individual products
                 .requestMatchers("/api/products/*/reviews").permitAll() // Allow public access to product reviews
                 .requestMatchers("/api/reviews/product/*").permitAll() // Allow public access to product reviews
+                .requestMatchers("/api/reviews/product/*/scroll").permitAll()
                 .requestMatchers("/api/categories/**").permitAll()
                 .requestMatchers("/uploads/**").permitAll() // Allow public access to uploaded images
                 .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
@@ -71,10 +75,10 @@ public class SecurityConfig {
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -82,8 +86,10 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
     }    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.password-hashing.threads:4}") int threads,
+                                           @Value("${app.auth.password-hashing.queue-capacity:32}") int queueCapacity) {
+        // BCrypt runs on its own bounded pool so a login burst cannot occupy every request thread
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity);
     }
 
     @Bean
@@ -92,6 +98,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*")); // Allow all origins for development
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(IdempotencyService.REPLAYED_HEADER));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
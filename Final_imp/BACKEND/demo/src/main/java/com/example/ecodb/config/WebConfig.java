@@ -1,20 +1,26 @@
 package com.example.ecodb.config;
 
+import com.example.ecodb.security.CurrentPrincipalArgumentResolver;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
     private final String uploadDir;
+    private final CurrentPrincipalArgumentResolver currentPrincipalArgumentResolver;
     
-    public WebConfig(@Value("${file.upload-dir:uploads}") String uploadDir) {
+    public WebConfig(@Value("${file.upload-dir:uploads}") String uploadDir,
+                     CurrentPrincipalArgumentResolver currentPrincipalArgumentResolver) {
         this.uploadDir = uploadDir;
+        this.currentPrincipalArgumentResolver = currentPrincipalArgumentResolver;
     }
 
     @Override
@@ -26,4 +32,9 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + uploadAbsolutePath + "/");
     }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentPrincipalArgumentResolver);
+    }
 }
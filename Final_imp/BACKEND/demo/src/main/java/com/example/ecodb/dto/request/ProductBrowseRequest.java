@@ -0,0 +1,23 @@
+package com.example.ecodb.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBrowseRequest {
+    // Several values within one dimension match any of them
+    private List<Long> categoryIds;
+    private List<String> colors;
+    private List<String> sizes;
+    private Boolean available;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minRating;
+}
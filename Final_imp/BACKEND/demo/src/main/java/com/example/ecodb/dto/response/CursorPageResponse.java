@@ -0,0 +1,37 @@
+package com.example.ecodb.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// A keyset page: no total count, just the token to pass back for the next page
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+    @Builder.Default
+    private List<T> content = new ArrayList<>();
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    // Builds a page from rows fetched with a limit of size + 1; the extra row only signals a next page
+    public static <E, T> CursorPageResponse<T> of(List<E> rows, int size,
+                                                  Function<E, T> mapper, Function<E, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        return CursorPageResponse.<T>builder()
+                .content(pageRows.stream().map(mapper).collect(Collectors.toList()))
+                .size(pageRows.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null)
+                .build();
+    }
+}
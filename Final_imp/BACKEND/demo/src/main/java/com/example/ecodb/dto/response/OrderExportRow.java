@@ -0,0 +1,82 @@
+package com.example.ecodb.dto.response;
+
+import com.example.ecodb.Repository.OrderExportRecord;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Flat order record written by the admin order export, one per line of output
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderExportRow {
+    private Long orderId;
+    private LocalDateTime creationDate;
+    private String orderStatus;
+    private String paymentStatus;
+    private Double totalPrice;
+    private Long customerId;
+    private String customerName;
+    private String customerEmail;
+    private String shippingStreet;
+    private String shippingCity;
+    private String shippingState;
+    private String shippingZipcode;
+    private String trackingNumber;
+    private Boolean delivered;
+    private Integer itemCount;
+    @Builder.Default
+    private List<Line> lines = new ArrayList<>();
+
+    // The order part of a record; its lines are added as the following records are read
+    public static OrderExportRow fromRecord(OrderExportRecord record) {
+        return OrderExportRow.builder()
+                .orderId(record.getOrderId())
+                .creationDate(record.getCreationDate())
+                .orderStatus(record.getOrderStatus().name())
+                .paymentStatus(record.getPaymentStatus().name())
+                .totalPrice(record.getTotalPrice())
+                .customerId(record.getCustomerId())
+                .customerName(record.getFirstName() + " " + record.getLastName())
+                .customerEmail(record.getEmail())
+                .shippingStreet(record.getShippingStreet())
+                .shippingCity(record.getShippingCity())
+                .shippingState(record.getShippingState())
+                .shippingZipcode(record.getShippingZipcode())
+                .trackingNumber(record.getTrackingNumber())
+                .delivered(record.getDelivered())
+                .itemCount(0)
+                .build();
+    }
+
+    public void addLine(Line line) {
+        lines.add(line);
+        itemCount += line.getQuantity();
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String productName;
+        private Integer quantity;
+        private Double priceAtPurchase;
+
+        public static Line fromRecord(OrderExportRecord record) {
+            return Line.builder()
+                    .productId(record.getProductId())
+                    .productName(record.getProductName())
+                    .quantity(record.getQuantity())
+                    .priceAtPurchase(record.getPriceAtPurchase())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.ecodb.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBrowseResponse {
+    @Builder.Default
+    private List<ProductResponse> content = new ArrayList<>();
+    private int pageNumber;
+    private int pageSize;
+    private long totalElements;
+    private int totalPages;
+    private boolean last;
+    // dimension -> value -> number of products, each dimension counted without its own filter
+    @Builder.Default
+    private Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+}
@@ -0,0 +1,42 @@
+package com.example.ecodb.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Slim product representation for listings, selected column by column by ProductRepository
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductCardResponse {
+    private Long productId;
+    private String productName;
+    private Double price;
+    // Price after the category's promotion, filled in by the pricing engine
+    private Double salePrice;
+    private BigDecimal discountPercent;
+    private Long categoryId;
+    private String mainImageUrl;
+    private Double averageRating;
+    private Long reviewCount;
+    private Boolean inStock;
+
+    // Used by the JPQL constructor expressions
+    public ProductCardResponse(Long productId, String productName, Double price, Long categoryId, String mainImageUrl,
+                               Long ratingSum, Long ratingCount, Integer quantityInStock) {
+        this.productId = productId;
+        this.productName = productName;
+        this.price = price;
+        this.salePrice = price;
+        this.categoryId = categoryId;
+        this.mainImageUrl = mainImageUrl;
+        this.reviewCount = ratingCount != null ? ratingCount : 0L;
+        this.averageRating = ratingCount != null && ratingCount > 0 && ratingSum != null
+                ? (double) ratingSum / ratingCount : null;
+        this.inStock = quantityInStock != null && quantityInStock > 0;
+    }
+}
@@ -7,19 +7,23 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class ProductResponse {
     private Long productId;
     private String productName;
     private Double price;
+    // Price after the category's promotion, filled in by the pricing engine
+    private Double salePrice;
+    private BigDecimal discountPercent;
     private Boolean isAvailable;
     private LocalDateTime creationDate;
     private String description;    private String details;
@@ -32,12 +36,14 @@ public class ProductResponse {
     @Builder.Default
     private List<ProductImageResponse> images = new ArrayList<>();
     private Double averageRating;
+    private Long reviewCount;
 
     public static ProductResponse fromEntity(Product product) {
         return ProductResponse.builder()
                 .productId(product.getProductId())
                 .productName(product.getProductName())
                 .price(product.getPrice())
+                .salePrice(product.getPrice())
                 .isAvailable(product.getAvailable())
                 .creationDate(product.getCreationDate())                .description(product.getDescription())
                 .details(product.getDetails())
@@ -51,6 +57,8 @@ public class ProductResponse {
                 .images(product.getImages().stream()
                         .map(ProductImageResponse::fromEntity)
                         .collect(Collectors.toList()))
+                .averageRating(product.getAverageRating())
+                .reviewCount(product.getRatingCount() != null ? product.getRatingCount() : 0L)
                 .build();
     }
     
@@ -1,15 +1,18 @@
 package com.example.ecodb.dto.response;
 
 import com.example.ecodb.Model.CartItem;
+import com.example.ecodb.Model.Product;
 import com.example.ecodb.Model.ShoppingCart;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Data
@@ -29,10 +32,18 @@ public class ShoppingCartResponse {
     private Integer totalItems;
 
     public static ShoppingCartResponse fromEntity(ShoppingCart cart) {
+        return fromEntity(cart, product -> BigDecimal.valueOf(product.getPrice()));
+    }
+
+    public static ShoppingCartResponse fromEntity(ShoppingCart cart, Function<Product, BigDecimal> unitPrice) {
+        List<CartItemResponse> items = cart.getCartItems().stream()
+                .map(item -> CartItemResponse.fromEntity(item, unitPrice.apply(item.getProduct())))
+                .collect(Collectors.toList());
+
         // Calculate total price and total items
-        double totalPrice = cart.getCartItems().stream()
-                .mapToDouble(item -> item.getProduct().getPrice() * item.getQuantity())
-                .sum();
+        BigDecimal totalPrice = cart.getCartItems().stream()
+                .map(item -> unitPrice.apply(item.getProduct()).multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
         
         int totalItems = cart.getCartItems().stream()
                 .mapToInt(CartItem::getQuantity)
@@ -45,10 +56,8 @@ public class ShoppingCartResponse {
                 .cartStatus(cart.getCartStatus().name())
                 .createdAt(cart.getCreatedAt())
                 .updatedAt(cart.getUpdatedAt())
-                .items(cart.getCartItems().stream()
-                        .map(CartItemResponse::fromEntity)
-                        .collect(Collectors.toList()))
-                .totalPrice(totalPrice)
+                .items(items)
+                .totalPrice(totalPrice.doubleValue())
                 .totalItems(totalItems)
                 .build();
     }
@@ -62,10 +71,16 @@ public class ShoppingCartResponse {
         private String productName;
         private String imageUrl;
         private Double price;
+        // Unit price after the category's promotion; the subtotal is charged at this price
+        private Double salePrice;
         private Integer quantity;
         private Double subtotal;
         
         public static CartItemResponse fromEntity(CartItem cartItem) {
+            return fromEntity(cartItem, BigDecimal.valueOf(cartItem.getProduct().getPrice()));
+        }
+
+        public static CartItemResponse fromEntity(CartItem cartItem, BigDecimal unitPrice) {
             // Get main image URL or first available image
             String imageUrl = null;
             if (cartItem.getProduct().getImages() != null && !cartItem.getProduct().getImages().isEmpty()) {
@@ -81,8 +96,9 @@ public class ShoppingCartResponse {
                     .productName(cartItem.getProduct().getProductName())
                     .imageUrl(imageUrl)
                     .price(cartItem.getProduct().getPrice())
+                    .salePrice(unitPrice.doubleValue())
                     .quantity(cartItem.getQuantity())
-                    .subtotal(cartItem.getProduct().getPrice() * cartItem.getQuantity())
+                    .subtotal(unitPrice.multiply(BigDecimal.valueOf(cartItem.getQuantity())).doubleValue())
                     .build();
         }
     }
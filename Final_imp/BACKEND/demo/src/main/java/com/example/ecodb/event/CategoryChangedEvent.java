@@ -0,0 +1,17 @@
+package com.example.ecodb.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published by category writes; listeners refresh what they derived from categories after commit
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+    private final ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
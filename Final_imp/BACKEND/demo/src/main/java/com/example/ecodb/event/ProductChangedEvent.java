@@ -0,0 +1,22 @@
+package com.example.ecodb.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published whenever a product, or something shown with it (images, rating, stock), changes.
+// Listeners that keep in-memory views of the catalog react to it after the transaction commits.
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    private final Long productId;
+    private final ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        // An update that also moved the product to another category
+        RECATEGORIZED,
+        DELETED
+    }
+}
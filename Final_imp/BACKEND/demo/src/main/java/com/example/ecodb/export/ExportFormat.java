@@ -0,0 +1,36 @@
+package com.example.ecodb.export;
+
+import com.example.ecodb.exception.BadRequestException;
+
+import java.util.Locale;
+
+// Output formats of the streaming exports
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    // Accepts the format name in any case, e.g. ?format=csv
+    public static ExportFormat fromParameter(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
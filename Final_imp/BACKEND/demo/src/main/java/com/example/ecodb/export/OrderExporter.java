@@ -0,0 +1,121 @@
+package com.example.ecodb.export;
+
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Repository.OrderExportRecord;
+import com.example.ecodb.Repository.OrderRepository;
+import com.example.ecodb.dto.response.OrderExportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams orders straight from a database cursor to the response. The cursor is one flat row per
+ * order line with each order's lines adjacent, so an order is written as soon as the next one
+ * starts. No entities are loaded, so the export is a single statement and memory stays flat
+ * however large the range.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderExporter {
+
+    private static final int FLUSH_INTERVAL = 500;
+    private static final String CSV_HEADER = "order_id,creation_date,order_status,payment_status,total_price,"
+            + "customer_id,customer_name,customer_email,shipping_street,shipping_city,shipping_state,"
+            + "shipping_zipcode,tracking_number,delivered,item_count";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    // Returns the number of orders written; the stream is left open for the caller to close
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, Order.OrderStatus status, LocalDateTime startDate, LocalDateTime endDate,
+                       OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        try (Stream<OrderExportRecord> records = orderRepository.streamForExport(status, startDate, endDate)) {
+            Iterator<OrderExportRecord> iterator = records.iterator();
+            OrderExportRow row = null;
+            while (iterator.hasNext()) {
+                OrderExportRecord record = iterator.next();
+                if (row == null || !row.getOrderId().equals(record.getOrderId())) {
+                    if (row != null) {
+                        write(writer, format, row);
+                        if (++rows % FLUSH_INTERVAL == 0) {
+                            writer.flush();
+                        }
+                    }
+                    row = OrderExportRow.fromRecord(record);
+                }
+                if (record.getProductId() != null) {
+                    row.addLine(OrderExportRow.Line.fromRecord(record));
+                }
+            }
+            if (row != null) {
+                write(writer, format, row);
+                rows++;
+            }
+        }
+
+        writer.flush();
+        return rows;
+    }
+
+    private void write(Writer writer, ExportFormat format, OrderExportRow row) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsv(writer, row);
+        } else {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        }
+    }
+
+    private static void writeCsv(Writer writer, OrderExportRow row) throws IOException {
+        writer.write(String.join(",",
+                String.valueOf(row.getOrderId()),
+                String.valueOf(row.getCreationDate()),
+                row.getOrderStatus(),
+                row.getPaymentStatus(),
+                String.valueOf(row.getTotalPrice()),
+                String.valueOf(row.getCustomerId()),
+                csvText(row.getCustomerName()),
+                csvText(row.getCustomerEmail()),
+                csvText(row.getShippingStreet()),
+                csvText(row.getShippingCity()),
+                csvText(row.getShippingState()),
+                csvText(row.getShippingZipcode()),
+                csvText(row.getTrackingNumber()),
+                row.getDelivered() != null ? String.valueOf(row.getDelivered()) : "",
+                String.valueOf(row.getItemCount())));
+        writer.write('\n');
+    }
+
+    // Quotes free text when needed and defuses values a spreadsheet would run as a formula
+    private static String csvText(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
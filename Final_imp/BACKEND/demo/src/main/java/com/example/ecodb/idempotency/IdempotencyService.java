@@ -0,0 +1,270 @@
+package com.example.ecodb.idempotency;
+
+import com.example.ecodb.Model.IdempotencyRecord;
+import com.example.ecodb.Repository.IdempotencyRecordRepository;
+import com.example.ecodb.exception.BadRequestException;
+import com.example.ecodb.exception.UnauthorizedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response when a client retries a request with the same Idempotency-Key.
+ * Keys are scoped to the authenticated user. The response is written in the same transaction as
+ * the work it describes, so a committed order always has its record. Recent records sit in a
+ * bounded in-process cache in front of the idempotency_record table, and a duplicate arriving while
+ * the first request is still running waits for that result instead of running again.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    // key hash -> record, for retries that arrive shortly after the original
+    private final Cache<String, IdempotencyRecord> cache;
+    // key hash -> execution still running on this instance
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${app.idempotency.maximum-size:10000}") long maximumSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Runs the action once per key; later calls with the key get the first response back
+    public <T> Result<T> execute(String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String keyHash = sha256(currentUser() + ":" + key);
+        String requestHash = sha256(write(request));
+
+        // Already completed
+        IdempotencyRecord stored = find(keyHash);
+        if (stored != null) {
+            return Result.replayed(replay(stored, requestHash, responseType));
+        }
+
+        // Still running on this instance
+        CompletableFuture<IdempotencyRecord> future = new CompletableFuture<>();
+        InFlight running = inFlight.putIfAbsent(keyHash, new InFlight(requestHash, future));
+        if (running != null) {
+            checkSameRequest(running.requestHash, requestHash);
+            return Result.replayed(read(await(running.future), responseType));
+        }
+
+        try {
+            // A duplicate may have finished between the lookup and claiming the key
+            stored = find(keyHash);
+            if (stored != null) {
+                future.complete(stored);
+                return Result.replayed(replay(stored, requestHash, responseType));
+            }
+
+            Execution<T> execution = transactionTemplate.execute(status -> {
+                T response = action.get();
+                LocalDateTime now = LocalDateTime.now();
+                IdempotencyRecord record = IdempotencyRecord.builder()
+                        .keyHash(keyHash)
+                        .requestHash(requestHash)
+                        .responseBody(write(response))
+                        .createdAt(now)
+                        .expiresAt(now.plus(ttl))
+                        .build();
+                // Persist rather than merge, so a key committed by another instance fails here
+                entityManager.persist(record);
+                entityManager.flush();
+                return new Execution<>(response, record);
+            });
+
+            cache.put(keyHash, execution.record);
+            future.complete(execution.record);
+            return Result.created(execution.response);
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // Another instance committed the same key first; this attempt rolled back.
+            // The flush goes through the plain EntityManager, so the error may be untranslated.
+            stored = find(keyHash);
+            if (stored == null) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+            future.complete(stored);
+            return Result.replayed(replay(stored, requestHash, responseType));
+        } catch (RuntimeException e) {
+            // Nothing was stored, so the client may retry with the same key
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(keyHash);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+    public void purgeExpiredRecords() {
+        Integer purged = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            System.out.println("Purged " + purged + " expired idempotency record(s)");
+        }
+    }
+
+    private IdempotencyRecord find(String keyHash) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord cached = cache.getIfPresent(keyHash);
+        if (cached != null && cached.getExpiresAt().isAfter(now)) {
+            return cached;
+        }
+
+        IdempotencyRecord stored = idempotencyRecordRepository.findByKeyHashAndExpiresAtAfter(keyHash, now).orElse(null);
+        if (stored != null) {
+            cache.put(keyHash, stored);
+        }
+        return stored;
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        checkSameRequest(record.getRequestHash(), requestHash);
+        return read(record, responseType);
+    }
+
+    private static void checkSameRequest(String storedRequestHash, String requestHash) {
+        if (!storedRequestHash.equals(requestHash)) {
+            throw new BadRequestException(KEY_HEADER + " was already used for a different request");
+        }
+    }
+
+    // Waits for the running execution and surfaces its failure as is
+    private static IdempotencyRecord await(CompletableFuture<IdempotencyRecord> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private <T> T read(IdempotencyRecord record, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Idempotent request cannot be serialized", e);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UnauthorizedException("User not found");
+        }
+        return authentication.getName();
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class InFlight {
+        private final String requestHash;
+        private final CompletableFuture<IdempotencyRecord> future;
+
+        private InFlight(String requestHash, CompletableFuture<IdempotencyRecord> future) {
+            this.requestHash = requestHash;
+            this.future = future;
+        }
+    }
+
+    private static final class Execution<T> {
+        private final T response;
+        private final IdempotencyRecord record;
+
+        private Execution(T response, IdempotencyRecord record) {
+            this.response = response;
+            this.record = record;
+        }
+    }
+
+    public static class Result<T> {
+        private final T response;
+        private final boolean replayed;
+
+        private Result(T response, boolean replayed) {
+            this.response = response;
+            this.replayed = replayed;
+        }
+
+        static <T> Result<T> created(T response) {
+            return new Result<>(response, false);
+        }
+
+        static <T> Result<T> replayed(T response) {
+            return new Result<>(response, true);
+        }
+
+        public T getResponse() {
+            return response;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.example.ecodb.inventory;
+
+import com.example.ecodb.Model.InventoryHold;
+import com.example.ecodb.Repository.InventoryHoldRepository;
+import com.example.ecodb.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Short-lived stock holds placed when a customer puts a product in the cart.
+ * A hold keeps its quantity away from other customers until checkout turns it into a real
+ * stock decrement or it expires. Holds live in memory behind a fixed set of lock stripes picked
+ * by product id, so the cart never locks the product row; they are written to the
+ * inventory_hold table in the background and reloaded on startup.
+ */
+@Service
+public class InventoryReservationService {
+
+    private static final int STRIPES = 64;
+
+    private final InventoryHoldRepository inventoryHoldRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long holdTtlMillis;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    // product id -> holds on that product, only touched under the product's stripe
+    private final Map<Long, ProductHolds> holdsByProduct = new ConcurrentHashMap<>();
+    // Holds changed since they were last written to the database
+    private final Set<HoldKey> dirty = ConcurrentHashMap.newKeySet();
+
+    public InventoryReservationService(InventoryHoldRepository inventoryHoldRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.inventory.hold-ttl:PT15M}") Duration holdTtl) {
+        this.inventoryHoldRepository = inventoryHoldRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.holdTtlMillis = holdTtl.toMillis();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Holds the given total quantity for the customer, replacing their previous hold and restarting its TTL.
+    // Fails when the stock not held by other customers cannot cover it. If the surrounding transaction
+    // rolls back, the previous hold is put back.
+    public void hold(Long productId, Long customerId, int quantity, int quantityInStock) {
+        Hold previous;
+        Hold placed;
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            ProductHolds holds = holdsByProduct.computeIfAbsent(productId, id -> new ProductHolds());
+            expire(productId, holds, now);
+
+            int available = quantityInStock - holds.heldByOthers(customerId);
+            if (available < quantity) {
+                throw new BadRequestException("Not enough stock available. Only " + Math.max(available, 0) + " items left.");
+            }
+
+            previous = holds.get(customerId);
+            placed = new Hold(quantity, now + holdTtlMillis);
+            holds.put(customerId, placed);
+            dirty.add(new HoldKey(productId, customerId));
+        } finally {
+            lock.unlock();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        restore(productId, customerId, placed, previous);
+                    }
+                }
+            });
+        }
+    }
+
+    // Quantity of each product currently held for customers other than the given one
+    public Map<Long, Integer> reservedByOthers(Collection<Long> productIds, Long customerId) {
+        long now = System.currentTimeMillis();
+        Map<Long, Integer> reserved = new HashMap<>();
+        for (Long productId : productIds) {
+            ReentrantLock lock = stripeFor(productId);
+            lock.lock();
+            try {
+                ProductHolds holds = holdsByProduct.get(productId);
+                if (holds != null) {
+                    expire(productId, holds, now);
+                    reserved.put(productId, holds.heldByOthers(customerId));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return reserved;
+    }
+
+    public void release(Long productId, Long customerId) {
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            ProductHolds holds = holdsByProduct.get(productId);
+            if (holds != null && holds.remove(customerId) != null) {
+                dirty.add(new HoldKey(productId, customerId));
+                if (holds.isEmpty()) {
+                    holdsByProduct.remove(productId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Releases the holds once the surrounding transaction commits, so a rolled back checkout keeps them
+    public void releaseAfterCommit(Long customerId, Collection<Long> productIds) {
+        List<Long> released = new ArrayList<>(productIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            released.forEach(productId -> release(productId, customerId));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                released.forEach(productId -> release(productId, customerId));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.sweep-interval:PT30S}")
+    public void sweepExpiredHolds() {
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        for (Long productId : new ArrayList<>(holdsByProduct.keySet())) {
+            ReentrantLock lock = stripeFor(productId);
+            lock.lock();
+            try {
+                ProductHolds holds = holdsByProduct.get(productId);
+                if (holds == null) {
+                    continue;
+                }
+                expired += expire(productId, holds, now);
+                if (holds.isEmpty()) {
+                    holdsByProduct.remove(productId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (expired > 0) {
+            System.out.println("Released " + expired + " expired inventory hold(s)");
+        }
+    }
+
+    // Writes the holds changed since the last run in one transaction
+    @Scheduled(fixedDelayString = "${app.inventory.persist-interval:PT10S}")
+    public void persistHolds() {
+        List<HoldKey> changed = new ArrayList<>(dirty);
+        if (changed.isEmpty()) {
+            return;
+        }
+        dirty.removeAll(changed);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (HoldKey key : changed) {
+                    Hold hold = currentHold(key);
+                    if (hold == null) {
+                        inventoryHoldRepository.deleteHold(key.productId, key.customerId);
+                        continue;
+                    }
+
+                    InventoryHold row = inventoryHoldRepository.findByProductIdAndCustomerId(key.productId, key.customerId)
+                            .orElseGet(() -> InventoryHold.builder()
+                                    .productId(key.productId)
+                                    .customerId(key.customerId)
+                                    .build());
+                    row.setQuantity(hold.quantity);
+                    row.setExpiresAt(toDateTime(hold.expiresAt));
+                    inventoryHoldRepository.save(row);
+                }
+                inventoryHoldRepository.deleteExpired(LocalDateTime.now());
+            });
+        } catch (RuntimeException e) {
+            // Try again on the next run
+            dirty.addAll(changed);
+            System.err.println("Failed to persist inventory holds: " + e.getMessage());
+        }
+    }
+
+    // Restores the holds that were still live when the application stopped
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreHolds() {
+        List<InventoryHold> rows = inventoryHoldRepository.findByExpiresAtAfter(LocalDateTime.now());
+        for (InventoryHold row : rows) {
+            ReentrantLock lock = stripeFor(row.getProductId());
+            lock.lock();
+            try {
+                ProductHolds holds = holdsByProduct.computeIfAbsent(row.getProductId(), id -> new ProductHolds());
+                if (!holds.contains(row.getCustomerId())) {
+                    holds.put(row.getCustomerId(), new Hold(row.getQuantity(), toMillis(row.getExpiresAt())));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        System.out.println("Restored " + rows.size() + " inventory hold(s)");
+    }
+
+    // Puts the previous hold back unless the placed one has been replaced or released since
+    private void restore(Long productId, Long customerId, Hold placed, Hold previous) {
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            ProductHolds holds = holdsByProduct.get(productId);
+            if (holds == null || holds.get(customerId) != placed) {
+                return;
+            }
+
+            if (previous != null && previous.expiresAt > System.currentTimeMillis()) {
+                holds.put(customerId, previous);
+            } else {
+                holds.remove(customerId);
+                if (holds.isEmpty()) {
+                    holdsByProduct.remove(productId);
+                }
+            }
+            dirty.add(new HoldKey(productId, customerId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Hold currentHold(HoldKey key) {
+        ReentrantLock lock = stripeFor(key.productId);
+        lock.lock();
+        try {
+            ProductHolds holds = holdsByProduct.get(key.productId);
+            return holds != null ? holds.get(key.customerId) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops the expired holds of one product; the caller holds its stripe
+    private int expire(Long productId, ProductHolds holds, long now) {
+        List<Long> expiredCustomers = holds.removeExpired(now);
+        expiredCustomers.forEach(customerId -> dirty.add(new HoldKey(productId, customerId)));
+        return expiredCustomers.size();
+    }
+
+    private ReentrantLock stripeFor(Long productId) {
+        return stripes[(Long.hashCode(productId) & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Hold {
+        private final int quantity;
+        private final long expiresAt;
+
+        private Hold(int quantity, long expiresAt) {
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Holds on one product with their running total, so availability is checked without summing
+    private static final class ProductHolds {
+        private final Map<Long, Hold> byCustomer = new HashMap<>();
+        private int total = 0;
+
+        private int heldByOthers(Long customerId) {
+            Hold own = byCustomer.get(customerId);
+            return total - (own != null ? own.quantity : 0);
+        }
+
+        private boolean contains(Long customerId) {
+            return byCustomer.containsKey(customerId);
+        }
+
+        private Hold get(Long customerId) {
+            return byCustomer.get(customerId);
+        }
+
+        private void put(Long customerId, Hold hold) {
+            Hold previous = byCustomer.put(customerId, hold);
+            total += hold.quantity - (previous != null ? previous.quantity : 0);
+        }
+
+        private Hold remove(Long customerId) {
+            Hold removed = byCustomer.remove(customerId);
+            if (removed != null) {
+                total -= removed.quantity;
+            }
+            return removed;
+        }
+
+        private List<Long> removeExpired(long now) {
+            List<Long> expired = new ArrayList<>();
+            Iterator<Map.Entry<Long, Hold>> iterator = byCustomer.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Hold> entry = iterator.next();
+                if (entry.getValue().expiresAt <= now) {
+                    total -= entry.getValue().quantity;
+                    expired.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+            return expired;
+        }
+
+        private boolean isEmpty() {
+            return byCustomer.isEmpty();
+        }
+    }
+
+    private static final class HoldKey {
+        private final Long productId;
+        private final Long customerId;
+
+        private HoldKey(Long productId, Long customerId) {
+            this.productId = productId;
+            this.customerId = customerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HoldKey)) {
+                return false;
+            }
+            HoldKey other = (HoldKey) o;
+            return productId.equals(other.productId) && customerId.equals(other.customerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, customerId);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ecodb.outbox;
+
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OutboxEvent;
+import com.example.ecodb.Model.User;
+import com.example.ecodb.Repository.OrderRepository;
+import com.example.ecodb.Service.EmailService;
+import com.example.ecodb.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OrderConfirmationOutboxHandler implements OutboxHandler {
+
+    private final OrderRepository orderRepository;
+    private final EmailService emailService;
+
+    @Override
+    public OutboxEvent.EventType getEventType() {
+        return OutboxEvent.EventType.SEND_ORDER_CONFIRMATION;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Order order = orderRepository.findById(event.getAggregateId())
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", event.getAggregateId()));
+
+        // A failed send is retried, so a customer may occasionally get the confirmation twice
+        User user = order.getCustomer().getUser();
+        String customerName = user.getFirstName() + " " + user.getLastName();
+        emailService.sendOrderConfirmationEmail(user.getEmail(), order.getOrderId(), customerName);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ecodb.outbox;
+
+import com.example.ecodb.Model.OutboxEvent;
+import com.example.ecodb.analytics.OrderRollupWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OrderRollupOutboxHandler implements OutboxHandler {
+
+    private final OrderRollupWriter orderRollupWriter;
+
+    @Override
+    public OutboxEvent.EventType getEventType() {
+        return OutboxEvent.EventType.UPDATE_ORDER_ROLLUP;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        // Idempotent, so a redelivered event leaves the rollups unchanged
+        orderRollupWriter.apply(event.getAggregateId());
+    }
+}
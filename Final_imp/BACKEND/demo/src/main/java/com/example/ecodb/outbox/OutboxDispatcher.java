@@ -0,0 +1,121 @@
+package com.example.ecodb.outbox;
+
+import com.example.ecodb.Model.OutboxEvent;
+import com.example.ecodb.Repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the outbox in batches. Each event runs in its own transaction with its row locked,
+ * so instances never work on the same event and a failure only rolls back that event. Failed
+ * events are retried with exponential backoff and parked as FAILED after the last attempt.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<OutboxEvent.EventType, OutboxHandler> handlers = new EnumMap<>(OutboxEvent.EventType.class);
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            PlatformTransactionManager transactionManager,
+                            List<OutboxHandler> handlers,
+                            @Value("${app.outbox.batch-size:100}") int batchSize,
+                            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${app.outbox.initial-backoff:PT5S}") Duration initialBackoff,
+                            @Value("${app.outbox.max-backoff:PT30M}") Duration maxBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        for (OutboxHandler handler : handlers) {
+            if (this.handlers.put(handler.getEventType(), handler) != null) {
+                throw new IllegalStateException("More than one outbox handler for " + handler.getEventType());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT1S}", scheduler = "outboxScheduler")
+    public void dispatch() {
+        // Keep draining while full batches come back and this instance is making progress
+        boolean progressed;
+        List<Long> due;
+        do {
+            due = outboxEventRepository.findDueEventIds(OutboxEvent.Status.PENDING, LocalDateTime.now(), Limit.of(batchSize));
+            progressed = false;
+            for (Long eventId : due) {
+                progressed |= dispatchEvent(eventId);
+            }
+        } while (progressed && due.size() == batchSize);
+    }
+
+    // Returns false when the event was skipped because another instance holds it or it is already done
+    private boolean dispatchEvent(Long eventId) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                OutboxEvent event = outboxEventRepository.lockById(eventId).orElse(null);
+                if (event == null || event.getStatus() != OutboxEvent.Status.PENDING) {
+                    return false;
+                }
+
+                OutboxHandler handler = handlers.get(event.getEventType());
+                if (handler == null) {
+                    throw new IllegalStateException("No outbox handler for " + event.getEventType());
+                }
+                handler.handle(event);
+
+                event.setAttempts(event.getAttempts() + 1);
+                event.setStatus(OutboxEvent.Status.PROCESSED);
+                event.setProcessedAt(LocalDateTime.now());
+                event.setLastError(null);
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            // The handler's work rolled back; record the failure in a fresh transaction
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.findById(eventId).ifPresent(event -> scheduleRetry(event, e)));
+            return true;
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent event, RuntimeException failure) {
+        int attempts = event.getAttempts() + 1;
+        String message = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+
+        event.setAttempts(attempts);
+        event.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxEvent.Status.FAILED);
+            System.err.println("Outbox event " + event.getEventId() + " (" + event.getEventType()
+                    + ") failed after " + attempts + " attempts: " + message);
+            return;
+        }
+
+        // 5s, 10s, 20s, ... capped at the maximum backoff
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+        System.err.println("Outbox event " + event.getEventId() + " (" + event.getEventType()
+                + ") failed, retrying in " + backoff.getSeconds() + "s: " + message);
+    }
+}
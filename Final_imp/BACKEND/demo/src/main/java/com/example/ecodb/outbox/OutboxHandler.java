@@ -0,0 +1,12 @@
+package com.example.ecodb.outbox;
+
+import com.example.ecodb.Model.OutboxEvent;
+
+// Runs the side effect of one outbox event type. Events are delivered at least once, so handlers must be safe to repeat.
+public interface OutboxHandler {
+
+    OutboxEvent.EventType getEventType();
+
+    // Runs inside the dispatcher's transaction; throwing schedules a retry
+    void handle(OutboxEvent event);
+}
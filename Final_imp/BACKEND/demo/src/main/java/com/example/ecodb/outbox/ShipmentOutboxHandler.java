@@ -0,0 +1,59 @@
+package com.example.ecodb.outbox;
+
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OutboxEvent;
+import com.example.ecodb.Model.Shipment;
+import com.example.ecodb.Repository.OrderRepository;
+import com.example.ecodb.Repository.ShipmentRepository;
+import com.example.ecodb.exception.ResourceNotFoundException;
+import com.example.ecodb.readmodel.OrderSummaryProjector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class ShipmentOutboxHandler implements OutboxHandler {
+
+    private final OrderRepository orderRepository;
+    private final ShipmentRepository shipmentRepository;
+    private final OrderSummaryProjector orderSummaryProjector;
+
+    @Override
+    public OutboxEvent.EventType getEventType() {
+        return OutboxEvent.EventType.CREATE_SHIPMENT;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Long orderId = event.getAggregateId();
+
+        // Locked first so a concurrent status change cannot overwrite the summary with a stale copy
+        Order order = orderRepository.lockById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+
+        // A redelivered event finds the shipment from the earlier run
+        if (shipmentRepository.findByOrderOrderId(orderId).isPresent()) {
+            return;
+        }
+
+        // Generate a random tracking number
+        String trackingNumber = "TRK" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+
+        Shipment shipment = Shipment.builder()
+                .order(order)
+                .isDelivered(false)
+                .trackingNumber(trackingNumber)
+                .carrier("Standard Delivery")
+                .expectedTime(LocalDateTime.now().plusDays(5))
+                .build();
+
+        shipmentRepository.save(shipment);
+        order.setShipment(shipment);
+
+        // Tracking details appear in the order history
+        orderSummaryProjector.project(orderId);
+    }
+}
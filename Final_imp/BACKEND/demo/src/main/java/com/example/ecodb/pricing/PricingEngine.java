@@ -0,0 +1,154 @@
+package com.example.ecodb.pricing;
+
+import com.example.ecodb.Model.Category;
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Model.Promotion;
+import com.example.ecodb.Repository.PromotionRepository;
+import com.example.ecodb.dto.response.ProductCardResponse;
+import com.example.ecodb.dto.response.ProductResponse;
+import com.example.ecodb.event.CategoryChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies promotion discounts to product prices.
+ * Active promotions are compiled into an immutable category -> discount table, so pricing a line
+ * is one map lookup and never touches the database. The table is rebuilt on startup, when a
+ * promotion starts or ends, and periodically to pick up promotions edited directly in the database.
+ * When several promotions cover a category the largest discount wins; discounts do not stack.
+ */
+@Component
+public class PricingEngine {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final PromotionRepository promotionRepository;
+
+    private volatile PriceRules rules = new PriceRules(Map.of(), LocalDateTime.MAX);
+
+    public PricingEngine(PromotionRepository promotionRepository) {
+        this.promotionRepository = promotionRepository;
+    }
+
+    // Discount in percent for products of the category, zero when no promotion applies
+    public BigDecimal discountPercent(Long categoryId) {
+        if (categoryId == null) {
+            return BigDecimal.ZERO;
+        }
+        return rules.discountByCategory.getOrDefault(categoryId, BigDecimal.ZERO);
+    }
+
+    public BigDecimal unitPrice(Product product) {
+        return unitPrice(product.getCategory().getCategoryId(), product.getPrice());
+    }
+
+    public BigDecimal unitPrice(Long categoryId, Double listPrice) {
+        BigDecimal price = BigDecimal.valueOf(listPrice);
+        BigDecimal discount = discountPercent(categoryId);
+        if (discount.signum() == 0) {
+            return price;
+        }
+        return price.multiply(HUNDRED.subtract(discount)).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+    }
+
+    // Returns a priced copy; cards may be shared through caches, so they are never modified
+    public ProductCardResponse price(ProductCardResponse card) {
+        return card.toBuilder()
+                .salePrice(unitPrice(card.getCategoryId(), card.getPrice()).doubleValue())
+                .discountPercent(discountPercent(card.getCategoryId()))
+                .build();
+    }
+
+    public ProductResponse price(ProductResponse product) {
+        return product.toBuilder()
+                .salePrice(unitPrice(product.getCategoryId(), product.getPrice()).doubleValue())
+                .discountPercent(discountPercent(product.getCategoryId()))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    // Cheap clock check; the rules are only rebuilt once a promotion has started or ended
+    @Scheduled(fixedDelayString = "${app.pricing.boundary-check-interval:PT1S}")
+    public void refreshAtBoundary() {
+        if (!LocalDateTime.now().isBefore(rules.nextChange)) {
+            refresh();
+        }
+    }
+
+    // Deleted categories drop out of the rules
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getChangeType() == CategoryChangedEvent.ChangeType.DELETED) {
+            refresh();
+        }
+    }
+
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Promotion> promotions = promotionRepository.findCurrentAndUpcoming(now);
+
+        Map<Long, BigDecimal> discountByCategory = new HashMap<>();
+        LocalDateTime nextChange = LocalDateTime.MAX;
+        for (Promotion promotion : promotions) {
+            if (promotion.getStartDate().isAfter(now)) {
+                // Upcoming: rebuild when it starts
+                nextChange = min(nextChange, promotion.getStartDate());
+                continue;
+            }
+
+            // Active until the end date has passed
+            nextChange = min(nextChange, promotion.getEndDate().plusNanos(1));
+            BigDecimal discount = clamp(promotion.getDiscount());
+            if (discount.signum() == 0) {
+                continue;
+            }
+            for (Category category : promotion.getCategories()) {
+                discountByCategory.merge(category.getCategoryId(), discount, BigDecimal::max);
+            }
+        }
+
+        rules = new PriceRules(Map.copyOf(discountByCategory), nextChange);
+    }
+
+    private static BigDecimal clamp(BigDecimal discount) {
+        if (discount == null || discount.signum() < 0) {
+            return BigDecimal.ZERO;
+        }
+        return discount.min(HUNDRED);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    // Immutable snapshot swapped as a whole, so readers never see a half-built table
+    private static final class PriceRules {
+        private final Map<Long, BigDecimal> discountByCategory;
+        private final LocalDateTime nextChange;
+
+        private PriceRules(Map<Long, BigDecimal> discountByCategory, LocalDateTime nextChange) {
+            this.discountByCategory = discountByCategory;
+            this.nextChange = nextChange;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.ecodb.readmodel;
+
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OrderSummary;
+import com.example.ecodb.Repository.OrderRepository;
+import com.example.ecodb.Repository.OrderSummaryRepository;
+import com.example.ecodb.dto.response.OrderResponse;
+import com.example.ecodb.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Maintains the order_summary read model behind the customer's order history.
+ * Each order is rendered once into the JSON document the history pages serve, so a page is one
+ * indexed query instead of walking customer, addresses, items, products, images and shipment per
+ * order. Writers call {@link #project(Long)} in the transaction that changes the order; orders
+ * that predate the read model are backfilled on startup, and readers fall back to the orders
+ * table until that has finished.
+ */
+@Component
+public class OrderSummaryProjector {
+
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean ready = false;
+
+    public OrderSummaryProjector(OrderRepository orderRepository,
+                                 OrderSummaryRepository orderSummaryRepository,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Expected to run inside the transaction that changed the order
+    public void project(Long orderId) {
+        // Pending changes are flushed by the locking query; concurrent writers wait here
+        Order order = orderRepository.lockById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        OrderResponse document = OrderResponse.fromEntity(order);
+
+        OrderSummary summary = orderSummaryRepository.findById(orderId)
+                .orElseGet(() -> OrderSummary.builder().orderId(orderId).build());
+        summary.setCustomerId(document.getCustomerId());
+        summary.setCreationDate(order.getCreationDate());
+        summary.setTotalPrice(order.getTotalPrice());
+        summary.setOrderStatus(order.getOrderStatus());
+        summary.setPaymentStatus(order.getPaymentStatus());
+        summary.setDocument(write(document));
+        summary.setUpdatedAt(LocalDateTime.now());
+        orderSummaryRepository.save(summary);
+    }
+
+    public OrderResponse read(OrderSummary summary) {
+        try {
+            return objectMapper.readValue(summary.getDocument(), OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Order summary " + summary.getOrderId() + " cannot be read", e);
+        }
+    }
+
+    // Project orders that have no summary yet, one transaction per batch
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void backfill() {
+        long start = System.currentTimeMillis();
+        int projected = 0;
+        Long afterOrderId = 0L;
+        List<Long> orderIds;
+        do {
+            orderIds = orderSummaryRepository.findOrderIdsWithoutSummary(afterOrderId, Limit.of(BACKFILL_BATCH_SIZE));
+            List<Long> batch = orderIds;
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::project));
+            projected += orderIds.size();
+            if (!orderIds.isEmpty()) {
+                afterOrderId = orderIds.get(orderIds.size() - 1);
+            }
+        } while (orderIds.size() == BACKFILL_BATCH_SIZE);
+
+        ready = true;
+        if (projected > 0) {
+            System.out.println("Backfilled " + projected + " order summaries in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    private String write(OrderResponse document) {
+        try {
+            return objectMapper.writeValueAsString(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Order summary cannot be serialized", e);
+        }
+    }
+}
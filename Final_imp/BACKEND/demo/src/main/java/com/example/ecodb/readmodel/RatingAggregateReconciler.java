@@ -0,0 +1,98 @@
+package com.example.ecodb.readmodel;
+
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Repository.ProductRepository;
+import com.example.ecodb.Repository.ProductReviewRepository;
+import com.example.ecodb.Repository.RatingAggregate;
+import com.example.ecodb.event.ProductChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Corrects the rating aggregates stored on products from the reviews themselves.
+ * Review writes adjust the aggregates while holding the product row, so a product is corrected
+ * in its own transaction that locks the row before reading the reviews: a concurrent review has
+ * then either committed and is counted, or has not adjusted the row yet and adds its delta on top
+ * of the corrected values. Products whose aggregates predate the columns are backfilled on startup.
+ */
+@Component
+public class RatingAggregateReconciler {
+
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    private final ProductRepository productRepository;
+    private final ProductReviewRepository productReviewRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public RatingAggregateReconciler(ProductRepository productRepository,
+                                     ProductReviewRepository productReviewRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productReviewRepository = productReviewRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Returns whether the stored aggregates had to be corrected
+    public boolean reconcile(Long productId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Product product = productRepository.lockById(productId).orElse(null);
+            if (product == null) {
+                return false;
+            }
+
+            RatingAggregate actual = productReviewRepository.aggregateRatingsOfProduct(productId).orElse(null);
+            long ratingSum = actual != null ? actual.getRatingSum() : 0L;
+            long ratingCount = actual != null ? actual.getRatingCount() : 0L;
+            long recommendedCount = actual != null ? actual.getRecommendedCount() : 0L;
+            if (Objects.equals(product.getRatingSum(), ratingSum) &&
+                    Objects.equals(product.getRatingCount(), ratingCount) &&
+                    Objects.equals(product.getRecommendedCount(), recommendedCount)) {
+                return false;
+            }
+
+            product.setRatingSum(ratingSum);
+            product.setRatingCount(ratingCount);
+            product.setRecommendedCount(recommendedCount);
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.UPDATED));
+            return true;
+        }));
+    }
+
+    // Fill in aggregates that are missing or do not count the product's reviews
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void backfill() {
+        long start = System.currentTimeMillis();
+        int corrected = 0;
+        Long afterProductId = 0L;
+        List<Long> productIds;
+        do {
+            productIds = productRepository.findProductIdsWithStaleRatingAggregates(afterProductId,
+                    Limit.of(BACKFILL_BATCH_SIZE));
+            for (Long productId : productIds) {
+                if (reconcile(productId)) {
+                    corrected++;
+                }
+            }
+            if (!productIds.isEmpty()) {
+                afterProductId = productIds.get(productIds.size() - 1);
+            }
+        } while (productIds.size() == BACKFILL_BATCH_SIZE);
+
+        if (corrected > 0) {
+            System.out.println("Backfilled rating aggregates of " + corrected + " products in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+}
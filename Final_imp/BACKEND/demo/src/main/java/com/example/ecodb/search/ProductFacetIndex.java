@@ -0,0 +1,419 @@
+package com.example.ecodb.search;
+
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.dto.request.ProductBrowseRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bitmap index over the product browse dimensions.
+ * Every product gets a dense document number; each category, color, size and availability
+ * value keeps a bitmap of the documents having it, while price and rating are kept in
+ * per-document arrays for range filters. Facet counts are computed disjunctively: the
+ * counts of a dimension ignore the filter on that dimension so the other choices stay visible.
+ */
+@Component
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String COLOR = "color";
+    public static final String SIZE = "size";
+    public static final String AVAILABLE = "available";
+    public static final String PRICE = "price";
+    public static final String RATING = "rating";
+
+    private static final double[] PRICE_BOUNDARIES = {25, 50, 100, 200, 500};
+    private static final int[] RATING_THRESHOLDS = {4, 3, 2, 1};
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> documents = new HashMap<>();
+    private final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+    private final BitSet live = new BitSet();
+
+    private long[] productIds = new long[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    // NaN for products without reviews
+    private double[] ratings = new double[INITIAL_CAPACITY];
+    private long[] creationTimes = new long[INITIAL_CAPACITY];
+    private String[][] values = new String[INITIAL_CAPACITY][];
+    private int nextDocument = 0;
+
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            bitmaps.clear();
+            live.clear();
+            productIds = new long[INITIAL_CAPACITY];
+            prices = new double[INITIAL_CAPACITY];
+            ratings = new double[INITIAL_CAPACITY];
+            creationTimes = new long[INITIAL_CAPACITY];
+            values = new String[INITIAL_CAPACITY][];
+            nextDocument = 0;
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds a product or replaces its previous values; new products get the next document number
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documents.get(product.getProductId());
+            if (document == null) {
+                document = nextDocument++;
+                ensureCapacity(document);
+                documents.put(product.getProductId(), document);
+            } else {
+                unsetValues(document);
+            }
+
+            String[] documentValues = {
+                    product.getCategory() != null ? String.valueOf(product.getCategory().getCategoryId()) : null,
+                    normalize(product.getColor()),
+                    normalize(product.getSize()),
+                    String.valueOf(Boolean.TRUE.equals(product.getIsAvailable()))
+            };
+            setValue(CATEGORY, documentValues[0], document);
+            setValue(COLOR, documentValues[1], document);
+            setValue(SIZE, documentValues[2], document);
+            setValue(AVAILABLE, documentValues[3], document);
+
+            productIds[document] = product.getProductId();
+            prices[document] = product.getPrice() != null ? product.getPrice() : 0.0;
+            Double rating = product.getAverageRating();
+            ratings[document] = rating != null ? rating : Double.NaN;
+            creationTimes[document] = product.getCreationDate() != null
+                    ? product.getCreationDate().toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+            values[document] = documentValues;
+            live.set(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            unsetValues(document);
+            values[document] = null;
+            live.clear(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public BrowseResult browse(ProductBrowseRequest request, int offset, int limit, String sortBy, boolean ascending) {
+        lock.readLock().lock();
+        try {
+            // One bitmap per filtered dimension, so facet counts can leave their own dimension out
+            Map<String, BitSet> filters = new LinkedHashMap<>();
+            addValueFilter(filters, CATEGORY, request.getCategoryIds());
+            addValueFilter(filters, COLOR, request.getColors());
+            addValueFilter(filters, SIZE, request.getSizes());
+            if (request.getAvailable() != null) {
+                addValueFilter(filters, AVAILABLE, List.of(String.valueOf(request.getAvailable())));
+            }
+            if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+                filters.put(PRICE, priceFilter(request.getMinPrice(), request.getMaxPrice()));
+            }
+            if (request.getMinRating() != null) {
+                filters.put(RATING, ratingFilter(request.getMinRating()));
+            }
+
+            BitSet matches = intersect(filters, null);
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put(CATEGORY, valueCounts(CATEGORY, intersect(filters, CATEGORY)));
+            facets.put(COLOR, valueCounts(COLOR, intersect(filters, COLOR)));
+            facets.put(SIZE, valueCounts(SIZE, intersect(filters, SIZE)));
+            facets.put(AVAILABLE, valueCounts(AVAILABLE, intersect(filters, AVAILABLE)));
+            facets.put(PRICE, priceCounts(intersect(filters, PRICE)));
+            facets.put(RATING, ratingCounts(intersect(filters, RATING)));
+
+            return new BrowseResult(page(matches, offset, limit, sortBy, ascending), matches.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addValueFilter(Map<String, BitSet> filters, String dimension, Collection<?> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return;
+        }
+        BitSet filter = new BitSet();
+        Map<String, BitSet> dimensionBitmaps = bitmaps.getOrDefault(dimension, Collections.emptyMap());
+        for (Object value : selected) {
+            BitSet bitmap = dimensionBitmaps.get(normalize(String.valueOf(value)));
+            if (bitmap != null) {
+                filter.or(bitmap);
+            }
+        }
+        filters.put(dimension, filter);
+    }
+
+    private BitSet priceFilter(Double minPrice, Double maxPrice) {
+        BitSet filter = new BitSet();
+        for (int document = live.nextSetBit(0); document >= 0; document = live.nextSetBit(document + 1)) {
+            double price = prices[document];
+            if ((minPrice == null || price >= minPrice) && (maxPrice == null || price <= maxPrice)) {
+                filter.set(document);
+            }
+        }
+        return filter;
+    }
+
+    private BitSet ratingFilter(Double minRating) {
+        BitSet filter = new BitSet();
+        for (int document = live.nextSetBit(0); document >= 0; document = live.nextSetBit(document + 1)) {
+            // NaN never passes, so unrated products are excluded
+            if (ratings[document] >= minRating) {
+                filter.set(document);
+            }
+        }
+        return filter;
+    }
+
+    // Live documents matching every filter except the excluded dimension
+    private BitSet intersect(Map<String, BitSet> filters, String excludedDimension) {
+        BitSet result = (BitSet) live.clone();
+        for (Map.Entry<String, BitSet> filter : filters.entrySet()) {
+            if (!filter.getKey().equals(excludedDimension)) {
+                result.and(filter.getValue());
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Long> valueCounts(String dimension, BitSet base) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        List<Map.Entry<String, BitSet>> entries =
+                new ArrayList<>(bitmaps.getOrDefault(dimension, Collections.emptyMap()).entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        for (Map.Entry<String, BitSet> entry : entries) {
+            BitSet bucket = (BitSet) entry.getValue().clone();
+            bucket.and(base);
+            long count = bucket.cardinality();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    private Map<String, Long> priceCounts(BitSet base) {
+        long[] bucketCounts = new long[PRICE_BOUNDARIES.length + 1];
+        for (int document = base.nextSetBit(0); document >= 0; document = base.nextSetBit(document + 1)) {
+            int bucket = 0;
+            while (bucket < PRICE_BOUNDARIES.length && prices[document] >= PRICE_BOUNDARIES[bucket]) {
+                bucket++;
+            }
+            bucketCounts[bucket]++;
+        }
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+            String label = bucket == 0 ? "0-" + format(PRICE_BOUNDARIES[0])
+                    : bucket == PRICE_BOUNDARIES.length ? format(PRICE_BOUNDARIES[bucket - 1]) + "+"
+                    : format(PRICE_BOUNDARIES[bucket - 1]) + "-" + format(PRICE_BOUNDARIES[bucket]);
+            counts.put(label, bucketCounts[bucket]);
+        }
+        return counts;
+    }
+
+    // Rating buckets are cumulative ("4+" includes every product rated 4 and above)
+    private Map<String, Long> ratingCounts(BitSet base) {
+        long[] thresholdCounts = new long[RATING_THRESHOLDS.length];
+        for (int document = base.nextSetBit(0); document >= 0; document = base.nextSetBit(document + 1)) {
+            for (int i = 0; i < RATING_THRESHOLDS.length; i++) {
+                if (ratings[document] >= RATING_THRESHOLDS[i]) {
+                    thresholdCounts[i]++;
+                }
+            }
+        }
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < RATING_THRESHOLDS.length; i++) {
+            counts.put(RATING_THRESHOLDS[i] + "+", thresholdCounts[i]);
+        }
+        return counts;
+    }
+
+    private List<Long> page(BitSet matches, int offset, int limit, String sortBy, boolean ascending) {
+        if (limit <= 0 || offset >= matches.cardinality()) {
+            return Collections.emptyList();
+        }
+
+        // Documents are numbered in creation order, so the default sort is a walk over the bitmap
+        if (sortBy == null || sortBy.equals("creationDate")) {
+            List<Long> page = new ArrayList<>(limit);
+            int skipped = 0;
+            int document = ascending ? matches.nextSetBit(0) : matches.previousSetBit(matches.length() - 1);
+            while (document >= 0 && page.size() < limit) {
+                if (skipped++ >= offset) {
+                    page.add(productIds[document]);
+                }
+                document = ascending ? matches.nextSetBit(document + 1) : matches.previousSetBit(document - 1);
+            }
+            return page;
+        }
+
+        Comparator<Integer> order = comparator(sortBy);
+        if (!ascending) {
+            order = order.reversed();
+        }
+
+        // Keep only the best offset + limit documents instead of sorting every match
+        int window = offset + limit;
+        PriorityQueue<Integer> best = new PriorityQueue<>(window + 1, order.reversed());
+        for (int document = matches.nextSetBit(0); document >= 0; document = matches.nextSetBit(document + 1)) {
+            best.offer(document);
+            if (best.size() > window) {
+                best.poll();
+            }
+        }
+
+        Integer[] ranked = best.toArray(new Integer[0]);
+        Arrays.sort(ranked, order);
+        List<Long> page = new ArrayList<>(limit);
+        for (int i = offset; i < ranked.length; i++) {
+            page.add(productIds[ranked[i]]);
+        }
+        return page;
+    }
+
+    private Comparator<Integer> comparator(String sortBy) {
+        Comparator<Integer> order;
+        switch (sortBy) {
+            case "price":
+                order = Comparator.comparingDouble(document -> prices[document]);
+                break;
+            case "averageRating":
+                // Unrated products sort below every rated one
+                order = Comparator.comparingDouble(document ->
+                        Double.isNaN(ratings[document]) ? -1.0 : ratings[document]);
+                break;
+            default:
+                order = Comparator.comparingLong(document -> creationTimes[document]);
+        }
+        return order.thenComparingLong(document -> productIds[document]);
+    }
+
+    private void setValue(String dimension, String value, int document) {
+        if (value == null) {
+            return;
+        }
+        bitmaps.computeIfAbsent(dimension, key -> new HashMap<>())
+                .computeIfAbsent(value, key -> new BitSet())
+                .set(document);
+    }
+
+    private void unsetValues(int document) {
+        String[] documentValues = values[document];
+        if (documentValues == null) {
+            return;
+        }
+        String[] dimensions = {CATEGORY, COLOR, SIZE, AVAILABLE};
+        for (int i = 0; i < dimensions.length; i++) {
+            if (documentValues[i] == null) {
+                continue;
+            }
+            Map<String, BitSet> dimensionBitmaps = bitmaps.get(dimensions[i]);
+            BitSet bitmap = dimensionBitmaps != null ? dimensionBitmaps.get(documentValues[i]) : null;
+            if (bitmap != null) {
+                bitmap.clear(document);
+                if (bitmap.isEmpty()) {
+                    dimensionBitmaps.remove(documentValues[i]);
+                }
+            }
+        }
+    }
+
+    private void ensureCapacity(int document) {
+        if (document < productIds.length) {
+            return;
+        }
+        int capacity = Math.max(productIds.length * 2, document + 1);
+        productIds = Arrays.copyOf(productIds, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        creationTimes = Arrays.copyOf(creationTimes, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    public static class BrowseResult {
+        private final List<Long> productIds;
+        private final long totalMatches;
+        private final Map<String, Map<String, Long>> facets;
+
+        public BrowseResult(List<Long> productIds, long totalMatches, Map<String, Map<String, Long>> facets) {
+            this.productIds = productIds;
+            this.totalMatches = totalMatches;
+            this.facets = facets;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        public long getTotalMatches() {
+            return totalMatches;
+        }
+
+        public Map<String, Map<String, Long>> getFacets() {
+            return facets;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ecodb.search;
+
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Repository.ProductRepository;
+import com.example.ecodb.event.CategoryChangedEvent;
+import com.example.ecodb.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Keeps the in-memory product search and facet indexes in sync with the database
+@Component
+@RequiredArgsConstructor
+public class ProductIndexer {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+
+    // Build the indexes once the application is up; requests fall back to the database until they are ready
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuildIndexes() {
+        long start = System.currentTimeMillis();
+        productSearchIndex.clear();
+        productFacetIndex.clear();
+
+        // Products are read in id order so facet documents follow creation order
+        PageRequest pageRequest = PageRequest.of(0, BATCH_SIZE, Sort.by("productId"));
+        Slice<Product> slice;
+        do {
+            slice = productRepository.findAllForIndexing(pageRequest);
+            for (Product product : slice.getContent()) {
+                productSearchIndex.index(product);
+                productFacetIndex.index(product);
+            }
+            pageRequest = pageRequest.next();
+        } while (slice.hasNext());
+
+        productSearchIndex.markReady();
+        productFacetIndex.markReady();
+        System.out.println("Product indexes built with " + productFacetIndex.size() + " products in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Runs on its own thread so the product is re-read from the database rather than from the
+    // persistence context of the request, which does not see bulk updates such as rating changes
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.getProductId();
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.DELETED) {
+            productSearchIndex.remove(productId);
+            productFacetIndex.remove(productId);
+            return;
+        }
+
+        productRepository.findDetailedByProductId(productId).ifPresentOrElse(product -> {
+            productSearchIndex.index(product);
+            productFacetIndex.index(product);
+        }, () -> {
+            productSearchIndex.remove(productId);
+            productFacetIndex.remove(productId);
+        });
+    }
+
+    // The category name is searchable, so a rename re-indexes the products in that category
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getChangeType() != CategoryChangedEvent.ChangeType.UPDATED) {
+            return;
+        }
+        productRepository.findByCategoryCategoryId(event.getCategoryId())
+                .forEach(productSearchIndex::index);
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.ecodb.search;
+
+import com.example.ecodb.Model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory inverted index over the searchable product fields.
+ * Terms are stemmed, typos within one edit are tolerated through a deletion index
+ * and the last query token is also matched as a prefix so search-as-you-type works.
+ * Writes are serialized, reads are lock-free.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float ATTRIBUTE_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float DETAILS_WEIGHT = 0.5f;
+
+    private static final float PREFIX_BOOST = 0.7f;
+    private static final float FUZZY_BOOST = 0.5f;
+    private static final int MAX_PREFIX_EXPANSIONS = 10;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is",
+            "it", "of", "on", "or", "the", "to", "with");
+
+    // term -> (product id -> weighted term frequency)
+    private final Map<String, Map<Long, Float>> postings = new ConcurrentHashMap<>();
+    // product id -> terms indexed for it, used to remove stale postings on update
+    private final Map<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+    // single-character deletion of a term -> terms producing it
+    private final Map<String, Set<String>> deletions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> vocabulary = new ConcurrentSkipListSet<>();
+
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public int size() {
+        return documentTerms.size();
+    }
+
+    // Adds or replaces a product; unavailable products are not searchable
+    public synchronized void index(Product product) {
+        remove(product.getProductId());
+        if (!Boolean.TRUE.equals(product.getIsAvailable())) {
+            return;
+        }
+
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getProductName(), NAME_WEIGHT);
+        addField(weights, product.getCategory() != null ? product.getCategory().getCategoryName() : null, CATEGORY_WEIGHT);
+        addField(weights, product.getColor(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getSize(), ATTRIBUTE_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        addField(weights, product.getDetails(), DETAILS_WEIGHT);
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            String term = entry.getKey();
+            if (vocabulary.add(term)) {
+                addDeletions(term);
+            }
+            postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>())
+                    .put(product.getProductId(), entry.getValue());
+        }
+        documentTerms.put(product.getProductId(), weights.keySet());
+    }
+
+    public synchronized void remove(Long productId) {
+        Set<String> terms = documentTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+
+        for (String term : terms) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs == null) {
+                continue;
+            }
+            docs.remove(productId);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                vocabulary.remove(term);
+                removeDeletions(term);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        documentTerms.clear();
+        deletions.clear();
+        vocabulary.clear();
+        ready = false;
+    }
+
+    // Returns the ids of the best matching products for the requested window, most relevant first
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        int documentCount = Math.max(documentTerms.size(), 1);
+        Map<Long, Float> scores = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean lastToken = i == tokens.size() - 1;
+            for (Map.Entry<String, Float> expansion : expand(tokens.get(i), lastToken).entrySet()) {
+                Map<Long, Float> docs = postings.get(expansion.getKey());
+                if (docs == null || docs.isEmpty()) {
+                    continue;
+                }
+                float idf = (float) Math.log(1.0 + (double) documentCount / docs.size());
+                float boost = expansion.getValue();
+                for (Map.Entry<Long, Float> doc : docs.entrySet()) {
+                    float weight = doc.getValue();
+                    // BM25-style saturation so long descriptions do not dominate the name
+                    float score = idf * boost * (weight * 2.2f) / (weight + 1.2f);
+                    scores.merge(doc.getKey(), score, Float::sum);
+                }
+            }
+        }
+
+        return new SearchResult(topResults(scores, offset, limit), scores.size());
+    }
+
+    // Maps a query token to the indexed terms it should match, with their boosts
+    private Map<String, Float> expand(String rawToken, boolean lastToken) {
+        Map<String, Float> expansions = new LinkedHashMap<>();
+        String term = stem(rawToken);
+
+        if (postings.containsKey(term)) {
+            expansions.put(term, 1.0f);
+        } else if (term.length() >= MIN_FUZZY_LENGTH) {
+            for (String candidate : fuzzyCandidates(term)) {
+                expansions.putIfAbsent(candidate, FUZZY_BOOST);
+            }
+        }
+
+        if (lastToken && rawToken.length() >= 3) {
+            int added = 0;
+            for (String candidate : vocabulary.subSet(rawToken, true, rawToken + Character.MAX_VALUE, false)) {
+                if (added++ >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(candidate, PREFIX_BOOST);
+            }
+        }
+        return expansions;
+    }
+
+    // Terms within one edit of the given term, found through the deletion index
+    private Set<String> fuzzyCandidates(String term) {
+        Set<String> candidates = new HashSet<>();
+        // The query is missing a character
+        candidates.addAll(deletions.getOrDefault(term, Collections.emptySet()));
+        for (String deletion : deletionsOf(term)) {
+            // The query has an extra character
+            if (vocabulary.contains(deletion)) {
+                candidates.add(deletion);
+            }
+            // The query has a substituted or transposed character
+            candidates.addAll(deletions.getOrDefault(deletion, Collections.emptySet()));
+        }
+        candidates.removeIf(candidate -> editDistance(term, candidate) > 1);
+        return candidates;
+    }
+
+    private List<Long> topResults(Map<Long, Float> scores, int offset, int limit) {
+        int window = offset + limit;
+        if (window <= 0 || offset >= scores.size()) {
+            return Collections.emptyList();
+        }
+
+        Comparator<Map.Entry<Long, Float>> byRelevance = Map.Entry.<Long, Float>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Float>comparingByKey());
+        PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(window + 1, byRelevance);
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            best.offer(entry);
+            if (best.size() > window) {
+                best.poll();
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(best.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return ranked.subList(Math.min(offset, ranked.size()), ranked.size());
+    }
+
+    private void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(stem(token), weight, Float::sum);
+        }
+    }
+
+    private void addDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (String deletion : deletionsOf(term)) {
+            deletions.computeIfAbsent(deletion, key -> ConcurrentHashMap.newKeySet()).add(term);
+        }
+    }
+
+    private void removeDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (String deletion : deletionsOf(term)) {
+            Set<String> terms = deletions.get(deletion);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletions.remove(deletion);
+                }
+            }
+        }
+    }
+
+    private static Set<String> deletionsOf(String term) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= 2 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Light English suffix stripping, applied the same way to documents and queries
+    static String stem(String token) {
+        int length = token.length();
+        if (length <= 3) {
+            return token;
+        }
+        if (token.endsWith("ies") && length > 4) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (token.endsWith("sses") || token.endsWith("ches") || token.endsWith("shes") || token.endsWith("xes")) {
+            return token.substring(0, length - 2);
+        }
+        if (token.endsWith("ing") && length > 5) {
+            return token.substring(0, length - 3);
+        }
+        if (token.endsWith("ed") && length > 4) {
+            return token.substring(0, length - 2);
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, length - 1);
+        }
+        return token;
+    }
+
+    // Optimal string alignment distance, stopping early once it exceeds one edit
+    static int editDistance(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return 2;
+        }
+        int[][] distance = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            distance[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            distance[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMinimum = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                distance[i][j] = Math.min(Math.min(distance[i - 1][j] + 1, distance[i][j - 1] + 1),
+                        distance[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance[i][j] = Math.min(distance[i][j], distance[i - 2][j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, distance[i][j]);
+            }
+            if (rowMinimum > 1) {
+                return 2;
+            }
+        }
+        return distance[a.length()][b.length()];
+    }
+
+    public static class SearchResult {
+        private final List<Long> productIds;
+        private final long totalMatches;
+
+        public SearchResult(List<Long> productIds, long totalMatches) {
+            this.productIds = productIds;
+            this.totalMatches = totalMatches;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        public long getTotalMatches() {
+            return totalMatches;
+        }
+    }
+}
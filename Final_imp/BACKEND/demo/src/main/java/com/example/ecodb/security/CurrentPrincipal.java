@@ -0,0 +1,104 @@
+package com.example.ecodb.security;
+
+import com.example.ecodb.Model.Admin;
+import com.example.ecodb.Model.Customer;
+import com.example.ecodb.Model.User;
+import com.example.ecodb.Repository.AdminRepository;
+import com.example.ecodb.Repository.CustomerRepository;
+import com.example.ecodb.Repository.UserRepository;
+import com.example.ecodb.exception.UnauthorizedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * The authenticated user of the current request.
+ * Ids and role come from the verified token claims, so ownership and role checks need no query.
+ * The customer and admin are handed out as references that load only when a field other than
+ * the id is read, and the user row is loaded at most once per request. Inject it into a service,
+ * or declare it as a controller method argument.
+ */
+@Component
+@RequestScope
+public class CurrentPrincipal {
+
+    private final UserRepository userRepository;
+    private final CustomerRepository customerRepository;
+    private final AdminRepository adminRepository;
+
+    private UserPrincipal principal;
+    private User user;
+    private Customer customer;
+    private Admin admin;
+
+    public CurrentPrincipal(UserRepository userRepository,
+                            CustomerRepository customerRepository,
+                            AdminRepository adminRepository) {
+        this.userRepository = userRepository;
+        this.customerRepository = customerRepository;
+        this.adminRepository = adminRepository;
+    }
+
+    public UserPrincipal getPrincipal() {
+        if (principal == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal)) {
+                throw new UnauthorizedException("User not authenticated");
+            }
+            principal = (UserPrincipal) authentication.getPrincipal();
+        }
+        return principal;
+    }
+
+    public Long getUserId() {
+        return getPrincipal().getUserId();
+    }
+
+    public String getEmail() {
+        return getPrincipal().getEmail();
+    }
+
+    public boolean isAdmin() {
+        return getPrincipal().isAdmin();
+    }
+
+    // Null when the user has no customer profile
+    public Long getCustomerId() {
+        return getPrincipal().getCustomerId();
+    }
+
+    public boolean isCustomer(Long customerId) {
+        return customerId != null && customerId.equals(getCustomerId());
+    }
+
+    public User getUser() {
+        if (user == null) {
+            user = userRepository.findById(getUserId())
+                    .orElseThrow(() -> new UnauthorizedException("User not found"));
+        }
+        return user;
+    }
+
+    public Customer requireCustomer(String message) {
+        if (customer == null) {
+            Long customerId = getCustomerId();
+            if (customerId == null) {
+                throw new UnauthorizedException(message);
+            }
+            customer = customerRepository.getReferenceById(customerId);
+        }
+        return customer;
+    }
+
+    public Admin requireAdmin(String message) {
+        if (admin == null) {
+            Long adminId = getPrincipal().getAdminId();
+            if (adminId == null) {
+                throw new UnauthorizedException(message);
+            }
+            admin = adminRepository.getReferenceById(adminId);
+        }
+        return admin;
+    }
+}
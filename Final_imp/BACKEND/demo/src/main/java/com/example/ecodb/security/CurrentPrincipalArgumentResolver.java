@@ -0,0 +1,33 @@
+package com.example.ecodb.security;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentPrincipal} controller method arguments to the request's instance.
+ */
+@Component
+public class CurrentPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final ObjectProvider<CurrentPrincipal> currentPrincipal;
+
+    public CurrentPrincipalArgumentResolver(ObjectProvider<CurrentPrincipal> currentPrincipal) {
+        this.currentPrincipal = currentPrincipal;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CurrentPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        return currentPrincipal.getObject();
+    }
+}
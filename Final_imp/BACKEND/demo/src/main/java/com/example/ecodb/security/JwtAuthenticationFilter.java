@@ -7,7 +7,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -19,11 +18,14 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final RevokedTokenRegistry revokedTokenRegistry;
     
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsServiceImpl userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, TokenVersionRegistry tokenVersionRegistry,
+                                   RevokedTokenRegistry revokedTokenRegistry) {
         this.jwtTokenProvider = jwtTokenProvider;
-        this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.revokedTokenRegistry = revokedTokenRegistry;
     }
 
     @Override
@@ -36,27 +38,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             // Validate token
             if (StringUtils.hasText(jwt) && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Extract username from token
-                String username = jwtTokenProvider.extractUsername(jwt);
+                // Verify signature and expiry; the principal comes from the claims, not the database
+                UserPrincipal principal = jwtTokenProvider.getPrincipal(jwt);
                 
-                if (username != null) {
-                    // Load user details
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Tokens issued before a role change, password change or delete carry an old version;
+                // logged out tokens are on the deny-list until they expire
+                if (principal != null
+                        && !revokedTokenRegistry.isRevoked(principal.getTokenId())
+                        && tokenVersionRegistry.isCurrent(principal.getUserId(), principal.getTokenVersion())) {
+                    // Create authentication token
+                    UsernamePasswordAuthenticationToken authentication = 
+                        new UsernamePasswordAuthenticationToken(
+                            principal,
+                            null,
+                            principal.getAuthorities());
                     
-                    // Validate token
-                    if (jwtTokenProvider.validateToken(jwt, userDetails)) {
-                        // Create authentication token
-                        UsernamePasswordAuthenticationToken authentication = 
-                            new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities());
-                        
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        
-                        // Set authentication to Security Context
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                    }
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    // Set authentication to Security Context
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
         } catch (Exception e) {
@@ -1,95 +1,135 @@
 package com.example.ecodb.security;
 
+import com.example.ecodb.Model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import jakarta.annotation.PostConstruct;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
-    private final String jwtSecret;
+    // Identity claims, so requests can be authenticated without loading the user
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String CUSTOMER_ID_CLAIM = "cid";
+    private static final String ADMIN_ID_CLAIM = "aid";
+    private static final String TOKEN_VERSION_CLAIM = "tv";
+
+    private final Key signingKey;
+    private final JwtParser jwtParser;
     private final long jwtExpirationInMs;
-      public JwtTokenProvider(
+
+    // Principals of verified tokens, each kept until its token expires
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtTokenProvider(
             @Value("${app.jwt.secret}") String jwtSecret,
-            @Value("${app.jwt.expiration-ms}") long jwtExpirationInMs) {
-        this.jwtSecret = jwtSecret;
+            @Value("${app.jwt.expiration-ms}") long jwtExpirationInMs,
+            @Value("${app.jwt.verified-token-cache-size:10000}") long verifiedTokenCacheSize) {
+        // For plain text secrets, use getBytes() instead of Base64 decoding
+        if (jwtSecret.length() < 32) {
+            throw new IllegalArgumentException("JWT secret must be at least 32 characters long");
+        }
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
         this.jwtExpirationInMs = jwtExpirationInMs;
-    }
-    
-    @PostConstruct
-    public void init() {
-        // This method will be called after the bean is constructed
-        // and all dependencies (including @Value fields) are set
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, verified.expiresAt - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     // Generate token
     public String generateToken(Authentication authentication) {
-        String username = authentication.getName();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + jwtExpirationInMs);
 
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, principal.getUserId());
+        claims.put(ROLE_CLAIM, principal.getRole().name());
+        claims.put(TOKEN_VERSION_CLAIM, principal.getTokenVersion());
+        if (principal.getCustomerId() != null) {
+            claims.put(CUSTOMER_ID_CLAIM, principal.getCustomerId());
+        }
+        if (principal.getAdminId() != null) {
+            claims.put(ADMIN_ID_CLAIM, principal.getAdminId());
+        }
+
         return Jwts.builder()
-                .setSubject(username)
+                .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(principal.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(expireDate)
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    // Extract username from token
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    // Verify the token and rebuild the principal from its claims; null for tokens without identity claims.
+    // A token seen before is answered from the cache, skipping signature check and JSON parsing.
+    public UserPrincipal getPrincipal(String token) {
+        VerifiedToken verified = verifiedTokens.get(token, this::verify);
+        return verified != null ? verified.principal : null;
     }
 
-    // Extract expiration date from token
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    // Extract specific claim
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+    // Parses the token once; throws for a bad signature, malformed or expired token
+    private VerifiedToken verify(String token) {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        // Tokens without a jti could not be revoked, so they are not accepted
+        if (userId == null || role == null || tokenVersion == null || claims.getId() == null
+                || claims.getExpiration() == null) {
+            return null;
+        }
 
-    // Extract all claims
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        UserPrincipal principal = new UserPrincipal(userId, claims.getSubject(), User.Role.valueOf(role),
+                claims.get(CUSTOMER_ID_CLAIM, Long.class), claims.get(ADMIN_ID_CLAIM, Long.class),
+                tokenVersion, claims.getId(), claims.getExpiration().toInstant(), null);
+        return new VerifiedToken(principal, claims.getExpiration().getTime());
     }
 
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
+    private static final class VerifiedToken {
+        private final UserPrincipal principal;
+        private final long expiresAt;
 
-    // Validate token
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }    // Get signing key
-    private Key getSignInKey() {
-        // For plain text secrets, use getBytes() instead of Base64 decoding
-        if (jwtSecret.length() < 32) {
-            throw new IllegalArgumentException("JWT secret must be at least 32 characters long");
+        private VerifiedToken(UserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
         }
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
     }
 }
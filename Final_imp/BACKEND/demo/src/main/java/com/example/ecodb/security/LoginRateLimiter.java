@@ -0,0 +1,90 @@
+package com.example.ecodb.security;
+
+import com.example.ecodb.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * In-memory token buckets limiting login attempts per client address and per account.
+ * A bucket holds up to its capacity and regains one attempt per refill interval; idle buckets
+ * are dropped once they would have refilled completely, so memory follows the active clients.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final long MAXIMUM_BUCKETS = 100000;
+
+    private final Limit addressLimit;
+    private final Limit accountLimit;
+
+    public LoginRateLimiter(@Value("${app.auth.login.address-capacity:20}") int addressCapacity,
+                            @Value("${app.auth.login.address-refill-interval:PT3S}") Duration addressRefillInterval,
+                            @Value("${app.auth.login.account-capacity:5}") int accountCapacity,
+                            @Value("${app.auth.login.account-refill-interval:PT12S}") Duration accountRefillInterval) {
+        this.addressLimit = new Limit(addressCapacity, addressRefillInterval, "Too many login attempts from this address");
+        this.accountLimit = new Limit(accountCapacity, accountRefillInterval, "Too many login attempts for this account");
+    }
+
+    // Takes one attempt from both buckets or throws with the time until the next attempt is allowed
+    public void acquire(String clientAddress, String email) {
+        addressLimit.acquire(clientAddress);
+        if (email != null) {
+            accountLimit.acquire(email.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static final class Limit {
+        private final int capacity;
+        private final long refillNanos;
+        private final String message;
+        private final Cache<String, TokenBucket> buckets;
+
+        private Limit(int capacity, Duration refillInterval, String message) {
+            this.capacity = capacity;
+            this.refillNanos = refillInterval.toNanos();
+            this.message = message;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(MAXIMUM_BUCKETS)
+                    .expireAfterAccess(refillInterval.multipliedBy(capacity))
+                    .build();
+        }
+
+        private void acquire(String key) {
+            TokenBucket bucket = buckets.get(key, k -> new TokenBucket(capacity, System.nanoTime()));
+            long waitNanos = bucket.tryConsume(System.nanoTime(), capacity, refillNanos);
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+                throw new TooManyRequestsException(message, retryAfterSeconds);
+            }
+        }
+    }
+
+    private static final class TokenBucket {
+        private long tokens;
+        private long refilledAt;
+
+        private TokenBucket(long tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        // Zero when an attempt was taken, otherwise the nanoseconds until the next one is available
+        private synchronized long tryConsume(long now, int capacity, long refillNanos) {
+            long refills = (now - refilledAt) / refillNanos;
+            if (refills > 0) {
+                tokens = Math.min(capacity, tokens + refills);
+                refilledAt = tokens == capacity ? now : refilledAt + refills * refillNanos;
+            }
+            if (tokens > 0) {
+                tokens--;
+                return 0;
+            }
+            return refilledAt + refillNanos - now;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.ecodb.security;
+
+import com.example.ecodb.Model.RevokedToken;
+import com.example.ecodb.Repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Deny-list of revoked token ids, checked on every authenticated request.
+ * A Bloom filter answers the common case, a token that was never revoked, from a few bit reads;
+ * only its rare positives are confirmed against the exact set. Revocations are stored in the
+ * database so they survive restarts and reach other instances, which pick them up on refresh.
+ * Entries are dropped once their token has expired, and the filter is rebuilt without them.
+ */
+@Component
+public class RevokedTokenRegistry {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // Rows committed late or stamped by a clock running behind are still picked up
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int expectedRevocations;
+
+    // token id -> token expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private LocalDateTime refreshedAt;
+
+    public RevokedTokenRegistry(RevokedTokenRepository revokedTokenRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.jwt.revocation.expected-revocations:100000}") int expectedRevocations) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expectedRevocations = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    // Loaded before the server accepts requests, so no revoked token slips through after a restart
+    @PostConstruct
+    public synchronized void load() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> tokens = revokedTokenRepository.findByExpiresAtAfter(now);
+        tokens.forEach(this::add);
+        refreshedAt = now;
+        if (!tokens.isEmpty()) {
+            System.out.println("Loaded " + tokens.size() + " revoked token(s)");
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    public void revoke(String tokenId, Long userId, Instant expiresAt) {
+        if (revoked.containsKey(tokenId)) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .userId(userId)
+                .revokedAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .build()));
+        synchronized (this) {
+            add(tokenId, expiresAt.toEpochMilli());
+        }
+    }
+
+    // Revocations made on other instances
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.refresh-interval:PT5S}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(refreshedAt.minus(REFRESH_OVERLAP), now)
+                .forEach(this::add);
+        refreshedAt = now;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.purge-interval:PT10M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            // Bits cannot be cleared from a Bloom filter, so it is rebuilt from what is left
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, 2 * revoked.size()), FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+
+        Integer purged = transactionTemplate.execute(status ->
+                revokedTokenRepository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            System.out.println("Purged " + purged + " expired revoked token(s)");
+        }
+    }
+
+    private void add(RevokedToken token) {
+        add(token.getTokenId(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    // Callers hold the lock; the exact set is written before the filter so a filter hit is always confirmed
+    private void add(String tokenId, long expiresAt) {
+        if (revoked.putIfAbsent(tokenId, expiresAt) == null) {
+            filter.put(tokenId);
+        }
+    }
+
+    // Bloom filter over token ids using double hashing; bits are written under the registry lock
+    private static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        private BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((optimalBits + 63) / 64));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        }
+
+        private void put(String value) {
+            long hash = mix(value.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long index = Math.floorMod((long) (h1 + i * h2), bits);
+                int word = (int) (index >>> 6);
+                words.set(word, words.get(word) | (1L << index));
+            }
+        }
+
+        private boolean mightContain(String value) {
+            long hash = mix(value.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long index = Math.floorMod((long) (h1 + i * h2), bits);
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // SplitMix64 finalizer, spreads the 32-bit string hash over both halves
+        private static long mix(int value) {
+            long z = value * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
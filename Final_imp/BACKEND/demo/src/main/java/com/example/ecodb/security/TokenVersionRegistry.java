@@ -0,0 +1,56 @@
+package com.example.ecodb.security;
+
+import com.example.ecodb.Repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Current token version per user, checked against the tv claim of every token.
+ * Versions are cached so authenticated requests normally run no query; a bump on this instance
+ * takes effect at once, and on other instances once their entry expires.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Cached for deleted users so their tokens are rejected without a query each time
+    private static final int NO_USER = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${app.jwt.token-version-cache-size:100000}") long maximumSize,
+                                @Value("${app.jwt.token-version-cache-ttl:PT30S}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        int current = versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(NO_USER));
+        return current != NO_USER && current == tokenVersion;
+    }
+
+    // Call after bumping the version or deleting the user; waits for the commit when in a transaction
+    public void invalidate(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.invalidate(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.invalidate(userId);
+            }
+        });
+    }
+}
@@ -1,34 +1,41 @@
 package com.example.ecodb.security;
 
 import com.example.ecodb.Model.User;
+import com.example.ecodb.Repository.AdminRepository;
+import com.example.ecodb.Repository.CustomerRepository;
 import com.example.ecodb.Repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final CustomerRepository customerRepository;
+    private final AdminRepository adminRepository;
     
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  CustomerRepository customerRepository,
+                                  AdminRepository adminRepository) {
         this.userRepository = userRepository;
+        this.customerRepository = customerRepository;
+        this.adminRepository = adminRepository;
     }
 
+    // Only used at login; the ids resolved here go into the token as claims
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority(user.getRole().name()))
-        );
+        // Customer and admin share the user's id
+        Long customerId = user.getRole() == User.Role.ROLE_Customer && customerRepository.existsById(user.getId())
+                ? user.getId() : null;
+        Long adminId = user.getRole() == User.Role.ROLE_ADMIN && adminRepository.existsById(user.getId())
+                ? user.getId() : null;
+
+        return UserPrincipal.fromUser(user, customerId, adminId);
     }
 }
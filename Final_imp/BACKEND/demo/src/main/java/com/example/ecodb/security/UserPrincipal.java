@@ -0,0 +1,124 @@
+package com.example.ecodb.security;
+
+import com.example.ecodb.Model.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user as carried in the JWT. Built from the database once at login and from the
+ * verified token claims on every later request, so identity needs no query per request.
+ * The customer and admin ids are null unless the user has that profile; the token id and expiry
+ * are set only when the principal was read from a token.
+ */
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    private final Long userId;
+    private final String email;
+    private final User.Role role;
+    private final Long customerId;
+    private final Long adminId;
+    private final int tokenVersion;
+    private final String tokenId;
+    private final Instant tokenExpiresAt;
+    private String password;
+
+    public UserPrincipal(Long userId, String email, User.Role role, Long customerId, Long adminId,
+                         int tokenVersion, String tokenId, Instant tokenExpiresAt, String password) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.customerId = customerId;
+        this.adminId = adminId;
+        this.tokenVersion = tokenVersion;
+        this.tokenId = tokenId;
+        this.tokenExpiresAt = tokenExpiresAt;
+        this.password = password;
+    }
+
+    public static UserPrincipal fromUser(User user, Long customerId, Long adminId) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getRole(), customerId, adminId,
+                user.getTokenVersion(), null, null, user.getPassword());
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Long getAdminId() {
+        return adminId;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getTokenExpiresAt() {
+        return tokenExpiresAt;
+    }
+
+    public boolean isAdmin() {
+        return role == User.Role.ROLE_ADMIN;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
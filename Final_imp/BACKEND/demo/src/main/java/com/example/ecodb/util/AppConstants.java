@@ -8,6 +8,7 @@ public class AppConstants {
     public static final String DEFAULT_PAGE_SIZE = "10";
     public static final String DEFAULT_SORT_BY = "creationDate";
     public static final String DEFAULT_SORT_DIRECTION = "desc";
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
     
     // File upload directories
     public static final String PRODUCT_IMAGES_DIR = "products";
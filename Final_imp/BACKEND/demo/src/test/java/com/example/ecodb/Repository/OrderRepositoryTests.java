@@ -0,0 +1,212 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Admin;
+import com.example.ecodb.Model.Category;
+import com.example.ecodb.Model.Customer;
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OrderItem;
+import com.example.ecodb.Model.OrderItemId;
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Model.Shipment;
+import com.example.ecodb.Model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryTests {
+
+    private static final int LINES = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ShipmentRepository shipmentRepository;
+
+    private Customer customer;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User adminUser = entityManager.persist(User.builder()
+                .firstName("Admin")
+                .lastName("User")
+                .email("order-admin@example.com")
+                .password("secret")
+                .phone("1234567890")
+                .role(User.Role.ROLE_ADMIN)
+                .build());
+        Admin admin = entityManager.persist(Admin.builder().user(adminUser).isActive(true).build());
+        Category category = entityManager.persist(Category.builder().categoryName("Checkout").build());
+
+        User customerUser = entityManager.persist(User.builder()
+                .firstName("Order")
+                .lastName("Customer")
+                .email("order-customer@example.com")
+                .password("secret")
+                .phone("0987654321")
+                .role(User.Role.ROLE_Customer)
+                .build());
+        customer = entityManager.persist(Customer.builder().user(customerUser).build());
+
+        for (int i = 0; i < LINES; i++) {
+            products.add(entityManager.persist(Product.builder()
+                    .productName("Line " + i)
+                    .price(10.0 + i)
+                    .quantityInStock(100)
+                    .admin(admin)
+                    .category(category)
+                    .build()));
+        }
+
+        entityManager.flush();
+    }
+
+    @Test
+    void checkoutWritesOrderWithOneSaveAndBatchedLines() {
+        // Before: order saved first, then every line and the shipment saved on their own
+        long perEntitySaves = countStatements(() -> {
+            Order order = orderRepository.save(newOrder());
+            for (Product product : products) {
+                orderItemRepository.save(OrderItem.builder()
+                        .id(new OrderItemId(order.getOrderId(), product.getProductId()))
+                        .order(order)
+                        .product(managed(product))
+                        .quantity(1)
+                        .priceAtPurchase(product.getPrice())
+                        .build());
+            }
+            shipmentRepository.save(newShipment(order));
+            orderRepository.save(order);
+        });
+
+        // After: lines and shipment hang off the order and cascade from a single save
+        long singleSave = countStatements(() -> {
+            Order order = newOrder();
+            for (Product product : products) {
+                order.addOrderItem(OrderItem.builder()
+                        .id(new OrderItemId(null, product.getProductId()))
+                        .product(managed(product))
+                        .quantity(1)
+                        .priceAtPurchase(product.getPrice())
+                        .build());
+            }
+            order.setShipment(newShipment(order));
+            orderRepository.save(order);
+        });
+
+        // order insert + one batched line insert + shipment insert
+        assertTrue(singleSave <= 3, "Expected at most 3 statements but was " + singleSave);
+        assertTrue(singleSave < perEntitySaves, "Statements per checkout of " + LINES + " lines: "
+                + perEntitySaves + " before, " + singleSave + " after");
+        assertEquals(2L * LINES, orderItemRepository.count());
+    }
+
+    @Test
+    void exportStreamFiltersByStatusInOrderIdOrder() {
+        Order pending = newOrder();
+        for (Product product : products) {
+            pending.addOrderItem(OrderItem.builder()
+                    .id(new OrderItemId(null, product.getProductId()))
+                    .product(product)
+                    .quantity(2)
+                    .priceAtPurchase(product.getPrice())
+                    .build());
+        }
+        pending.setShipment(newShipment(pending));
+        orderRepository.save(pending);
+        Order cancelled = newOrder();
+        cancelled.setOrderStatus(Order.OrderStatus.Cancelled);
+        orderRepository.save(cancelled);
+        Order laterPending = orderRepository.save(newOrder());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OrderExportRecord> pendingRecords = new ArrayList<>();
+        long statements = countStatements(() -> {
+            try (Stream<OrderExportRecord> records = orderRepository.streamForExport(Order.OrderStatus.Pending, null, null)) {
+                records.forEach(pendingRecords::add);
+            }
+        });
+        long inFuture;
+        try (Stream<OrderExportRecord> records = orderRepository.streamForExport(null, LocalDateTime.now().plusDays(1), null)) {
+            inFuture = records.count();
+        }
+
+        // One row per line of the first order, then the second order once with no line
+        List<Long> expectedIds = new ArrayList<>(Collections.nCopies(LINES, pending.getOrderId()));
+        expectedIds.add(laterPending.getOrderId());
+        assertEquals(expectedIds, pendingRecords.stream().map(OrderExportRecord::getOrderId).collect(Collectors.toList()));
+        assertEquals("TRK-TEST", pendingRecords.get(0).getTrackingNumber());
+        assertEquals(products.get(0).getProductId(), pendingRecords.get(0).getProductId());
+        assertNull(pendingRecords.get(LINES).getProductId());
+        assertEquals(0, inFuture);
+
+        // Lines, customer and shipment come from the same cursor, not a query per order
+        assertEquals(1, statements, "Statements for an export of " + LINES + " lines: " + statements);
+    }
+
+    private Order newOrder() {
+        return Order.builder()
+                .totalPrice(100.0)
+                .customer(customer)
+                .build();
+    }
+
+    private Shipment newShipment(Order order) {
+        return Shipment.builder()
+                .order(order)
+                .trackingNumber("TRK-TEST")
+                .carrier("Standard Delivery")
+                .expectedTime(LocalDateTime.now().plusDays(5))
+                .build();
+    }
+
+    // The measured blocks start from a cleared context; a reference attaches the product without a select
+    private Product managed(Product product) {
+        return entityManager.getEntityManager().getReference(Product.class, product.getProductId());
+    }
+
+    // Runs the work, flushes any writes and returns the number of prepared statements
+    private long countStatements(Runnable work) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        work.run();
+        entityManager.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Admin;
+import com.example.ecodb.Model.Category;
+import com.example.ecodb.Model.Customer;
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OrderItem;
+import com.example.ecodb.Model.OrderItemId;
+import com.example.ecodb.Model.OrderRollup;
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Model.User;
+import com.example.ecodb.analytics.OrderRollupWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class OrderRollupRepositoryTests {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final long CATEGORY_ID = 7L;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRollupRepository orderRollupRepository;
+
+    @Autowired
+    private OrderRollupStateRepository orderRollupStateRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int day = 0; day < 3; day++) {
+            entityManager.persist(bucket(DAY.plusDays(day), Order.PaymentStatus.Completed, OrderRollup.ALL_CATEGORIES, "100.00"));
+            entityManager.persist(bucket(DAY.plusDays(day), Order.PaymentStatus.Completed, CATEGORY_ID, "60.00"));
+            entityManager.persist(bucket(DAY.plusDays(day), Order.PaymentStatus.Refunded, OrderRollup.ALL_CATEGORIES, "40.00"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void incrementsAreAppliedInPlace() {
+        int updated = orderRollupRepository.addToBucket(OrderRollup.Granularity.DAY, DAY, Order.PaymentStatus.Completed,
+                OrderRollup.ALL_CATEGORIES, -1, -2, new BigDecimal("-25.50"));
+        int missing = orderRollupRepository.addToBucket(OrderRollup.Granularity.HOUR, DAY, Order.PaymentStatus.Completed,
+                OrderRollup.ALL_CATEGORIES, 1, 1, BigDecimal.TEN);
+
+        assertEquals(1, updated);
+        assertEquals(0, missing);
+        assertEquals(0, new BigDecimal("74.50").compareTo(orderRollupRepository.sumRevenue(
+                OrderRollup.Granularity.DAY, DAY, DAY.plusDays(1), Order.PaymentStatus.Completed)));
+    }
+
+    @Test
+    void sumsOnlyBucketsInsideTheRange() {
+        BigDecimal revenue = orderRollupRepository.sumRevenue(OrderRollup.Granularity.DAY,
+                DAY, DAY.plusDays(2), Order.PaymentStatus.Completed);
+        Long orders = orderRollupRepository.sumOrderCount(OrderRollup.Granularity.DAY, DAY, DAY.plusDays(2));
+        List<CategoryRevenue> byCategory = orderRollupRepository.sumRevenueByCategory(OrderRollup.Granularity.DAY,
+                DAY, DAY.plusDays(3), Order.PaymentStatus.Completed);
+
+        // Two days of completed orders; refunded ones only count as orders
+        assertEquals(0, new BigDecimal("200.00").compareTo(revenue));
+        assertEquals(4L, orders);
+        assertEquals(1, byCategory.size());
+        assertEquals(CATEGORY_ID, byCategory.get(0).getCategoryId());
+        assertEquals(0, new BigDecimal("180.00").compareTo(new BigDecimal(byCategory.get(0).getRevenue().toString())));
+    }
+
+    @Test
+    void writerMovesTheRecordedContributionOnceAfterRecategorization() {
+        User adminUser = entityManager.persist(User.builder()
+                .firstName("Rollup")
+                .lastName("Admin")
+                .email("rollup-admin@example.com")
+                .password("secret")
+                .phone("1234567890")
+                .role(User.Role.ROLE_ADMIN)
+                .build());
+        Admin admin = entityManager.persist(Admin.builder().user(adminUser).isActive(true).build());
+        User customerUser = entityManager.persist(User.builder()
+                .firstName("Rollup")
+                .lastName("Customer")
+                .email("rollup-customer@example.com")
+                .password("secret")
+                .phone("0987654321")
+                .role(User.Role.ROLE_Customer)
+                .build());
+        Customer customer = entityManager.persist(Customer.builder().user(customerUser).build());
+        Category sold = entityManager.persist(Category.builder().categoryName("Sold in").build());
+        Category movedTo = entityManager.persist(Category.builder().categoryName("Moved to").build());
+        Product product = entityManager.persist(Product.builder()
+                .productName("Rollup product")
+                .price(10.0)
+                .quantityInStock(10)
+                .admin(admin)
+                .category(sold)
+                .build());
+
+        Order order = Order.builder()
+                .totalPrice(20.0)
+                .customer(customer)
+                .paymentStatus(Order.PaymentStatus.Completed)
+                .build();
+        order.addOrderItem(OrderItem.builder()
+                .id(new OrderItemId(null, product.getProductId()))
+                .product(product)
+                .quantity(2)
+                .priceAtPurchase(10.0)
+                .build());
+        entityManager.persist(order);
+        entityManager.flush();
+        entityManager.clear();
+
+        OrderRollupWriter writer = new OrderRollupWriter(orderRepository, orderRollupRepository,
+                orderRollupStateRepository, transactionManager);
+        writer.apply(order.getOrderId());
+        writer.apply(order.getOrderId());
+        assertEquals(Map.of(sold.getCategoryId(), "20.00"), revenueByCategory(Order.PaymentStatus.Completed));
+
+        // The product changes category before the order is refunded
+        Product moved = entityManager.find(Product.class, product.getProductId());
+        moved.setCategory(entityManager.find(Category.class, movedTo.getCategoryId()));
+        Order refunded = entityManager.find(Order.class, order.getOrderId());
+        refunded.setPaymentStatus(Order.PaymentStatus.Refunded);
+        entityManager.flush();
+        entityManager.clear();
+
+        writer.apply(order.getOrderId());
+        writer.apply(order.getOrderId());
+        assertEquals(Map.of(sold.getCategoryId(), "0.00"), revenueByCategory(Order.PaymentStatus.Completed));
+        assertEquals(Map.of(sold.getCategoryId(), "20.00"), revenueByCategory(Order.PaymentStatus.Refunded));
+        assertEquals(0, BigDecimal.ZERO.compareTo(orderRollupRepository.sumRevenue(OrderRollup.Granularity.HOUR,
+                order.getCreationDate().minusDays(1), order.getCreationDate().plusDays(1), Order.PaymentStatus.Completed)));
+    }
+
+    // Revenue per category in the daily buckets around now, as plain strings for comparison
+    private Map<Long, String> revenueByCategory(Order.PaymentStatus paymentStatus) {
+        LocalDateTime today = LocalDateTime.now().toLocalDate().atStartOfDay();
+        return orderRollupRepository.sumRevenueByCategory(OrderRollup.Granularity.DAY,
+                        today.minusDays(1), today.plusDays(1), paymentStatus).stream()
+                .collect(Collectors.toMap(CategoryRevenue::getCategoryId,
+                        row -> new BigDecimal(row.getRevenue().toString()).setScale(2).toPlainString()));
+    }
+
+    private static OrderRollup bucket(LocalDateTime start, Order.PaymentStatus paymentStatus, long categoryId, String revenue) {
+        return OrderRollup.builder()
+                .granularity(OrderRollup.Granularity.DAY)
+                .bucketStart(start)
+                .paymentStatus(paymentStatus)
+                .categoryId(categoryId)
+                .orderCount(1L)
+                .itemsSold(2L)
+                .revenue(new BigDecimal(revenue))
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Customer;
+import com.example.ecodb.Model.Order;
+import com.example.ecodb.Model.OrderSummary;
+import com.example.ecodb.Model.Shipment;
+import com.example.ecodb.Model.User;
+import com.example.ecodb.Service.impl.ShipmentServiceImpl;
+import com.example.ecodb.dto.response.OrderResponse;
+import com.example.ecodb.readmodel.OrderSummaryProjector;
+import com.example.ecodb.security.CurrentPrincipal;
+import com.example.ecodb.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderSummaryRepositoryTests {
+
+    private static final int ORDERS = 30;
+    private static final int SUMMARIZED = 25;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ShipmentRepository shipmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Customer customer;
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .firstName("History")
+                .lastName("Customer")
+                .email("history-customer@example.com")
+                .password("secret")
+                .phone("0987654321")
+                .role(User.Role.ROLE_Customer)
+                .build());
+        customer = entityManager.persist(Customer.builder().user(user).build());
+
+        LocalDateTime start = LocalDateTime.now().minusDays(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = entityManager.persist(Order.builder()
+                    .totalPrice(10.0 + i)
+                    .customer(customer)
+                    .build());
+            orders.add(order);
+
+            // The last few orders are left without a summary, as if placed before the read model existed
+            if (i < SUMMARIZED) {
+                entityManager.persist(OrderSummary.builder()
+                        .orderId(order.getOrderId())
+                        .customerId(customer.getCustomerId())
+                        .creationDate(start.plusDays(i))
+                        .totalPrice(order.getTotalPrice())
+                        .orderStatus(order.getOrderStatus())
+                        .paymentStatus(order.getPaymentStatus())
+                        .document("{\"orderId\":" + order.getOrderId() + "}")
+                        .updatedAt(LocalDateTime.now())
+                        .build());
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void historyPageCostsConstantNumberOfStatements() {
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "creationDate");
+        long smallPage = countStatements(PageRequest.of(0, 5, newestFirst));
+        long largePage = countStatements(PageRequest.of(0, 20, newestFirst));
+
+        // page select + count query, independent of page size
+        assertEquals(smallPage, largePage);
+        assertTrue(largePage <= 2, "Expected at most 2 statements but was " + largePage);
+    }
+
+    @Test
+    void keysetPagesWalkHistoryNewestFirst() {
+        List<OrderSummary> first = orderSummaryRepository.findCustomerSummariesFirstPage(customer.getCustomerId(), Limit.of(10));
+        OrderSummary last = first.get(first.size() - 1);
+        List<OrderSummary> next = orderSummaryRepository.findCustomerSummariesAfter(customer.getCustomerId(),
+                last.getCreationDate(), last.getOrderId(), Limit.of(100));
+
+        assertEquals(orders.get(SUMMARIZED - 1).getOrderId(), first.get(0).getOrderId());
+        assertEquals(SUMMARIZED - 10, next.size());
+        assertTrue(next.get(0).getCreationDate().isBefore(last.getCreationDate()));
+    }
+
+    @Test
+    void ordersWithoutSummaryAreFoundForBackfill() {
+        List<Long> missing = orderSummaryRepository.findOrderIdsWithoutSummary(0L, Limit.of(100));
+        List<Long> afterFirst = orderSummaryRepository.findOrderIdsWithoutSummary(missing.get(0), Limit.of(100));
+
+        List<Long> expected = orders.subList(SUMMARIZED, ORDERS).stream().map(Order::getOrderId).collect(Collectors.toList());
+        assertEquals(expected, missing);
+        assertEquals(expected.subList(1, expected.size()), afterFirst);
+    }
+
+    @Test
+    void shipmentDeliveryAfterCheckoutIsProjected() {
+        OrderSummaryProjector projector = new OrderSummaryProjector(orderRepository, orderSummaryRepository,
+                new ObjectMapper().findAndRegisterModules(), transactionManager);
+        Order order = entityManager.find(Order.class, orders.get(0).getOrderId());
+        Shipment shipment = entityManager.persist(Shipment.builder()
+                .order(order)
+                .trackingNumber("TRK-HISTORY")
+                .carrier("Standard Delivery")
+                .build());
+        order.setShipment(shipment);
+        projector.project(order.getOrderId());
+        entityManager.flush();
+        entityManager.clear();
+
+        OrderResponse placed = projector.read(orderSummaryRepository.findById(order.getOrderId()).orElseThrow());
+        assertFalse(placed.getShipment().getIsDelivered());
+
+        UserPrincipal admin = new UserPrincipal(1L, "admin@example.com", User.Role.ROLE_ADMIN, null, 1L, 0, null, null, null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+        ShipmentServiceImpl shipmentService = new ShipmentServiceImpl(shipmentRepository, orderRepository,
+                new CurrentPrincipal(userRepository, customerRepository, adminRepository), projector);
+        shipmentService.markShipmentAsDelivered(shipment.getShipmentId());
+        entityManager.flush();
+        entityManager.clear();
+
+        OrderSummary summary = orderSummaryRepository.findById(order.getOrderId()).orElseThrow();
+        OrderResponse delivered = projector.read(summary);
+        assertEquals(Order.OrderStatus.Delivered, summary.getOrderStatus());
+        assertEquals(Order.OrderStatus.Delivered.name(), delivered.getOrderStatus());
+        assertTrue(delivered.getShipment().getIsDelivered());
+    }
+
+    // Runs the page query and returns the number of prepared statements
+    private long countStatements(PageRequest pageRequest) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<OrderSummary> page = orderSummaryRepository.findByCustomerId(customer.getCustomerId(), pageRequest);
+        assertTrue(page.getNumberOfElements() > 0);
+        assertEquals(SUMMARIZED, page.getTotalElements());
+
+        return statistics.getPrepareStatementCount();
+    }
+}
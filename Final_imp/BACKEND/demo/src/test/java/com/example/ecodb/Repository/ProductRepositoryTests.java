@@ -0,0 +1,178 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Admin;
+import com.example.ecodb.Model.Category;
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Model.ProductImage;
+import com.example.ecodb.Model.User;
+import com.example.ecodb.cache.CategorySnapshot;
+import com.example.ecodb.cache.CategorySnapshotCache;
+import com.example.ecodb.dto.response.ProductCardResponse;
+import com.example.ecodb.event.ProductChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProductRepositoryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .firstName("Admin")
+                .lastName("User")
+                .email("admin@example.com")
+                .password("secret")
+                .phone("1234567890")
+                .role(User.Role.ROLE_ADMIN)
+                .build());
+        Admin admin = entityManager.persist(Admin.builder().user(user).isActive(true).build());
+        category = entityManager.persist(Category.builder().categoryName("Electronics").build());
+
+        for (int i = 0; i < 30; i++) {
+            Product product = Product.builder()
+                    .productName("Product " + i)
+                    .price(10.0 + i)
+                    .quantityInStock(5)
+                    .admin(admin)
+                    .category(category)
+                    .build();
+            product.addImage(ProductImage.builder().imageUrl("products/" + i + "-main.jpg").isMain(true).build());
+            product.addImage(ProductImage.builder().imageUrl("products/" + i + "-side.jpg").build());
+            entityManager.persist(product);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void productCardPageCostsConstantNumberOfStatements() {
+        long smallPage = countStatements(() -> productRepository.findAvailableCards(PageRequest.of(0, 5)));
+        long largePage = countStatements(() -> productRepository.findAvailableCards(PageRequest.of(0, 25)));
+
+        // page select + count query, independent of page size
+        assertEquals(smallPage, largePage);
+        assertTrue(largePage <= 2, "Expected at most 2 statements but was " + largePage);
+    }
+
+    @Test
+    void categoryCardPageCostsConstantNumberOfStatements() {
+        long statements = countStatements(() ->
+                productRepository.findCardsByCategoryId(category.getCategoryId(), PageRequest.of(0, 25)));
+
+        assertTrue(statements <= 2, "Expected at most 2 statements but was " + statements);
+    }
+
+    @Test
+    void searchCardPageCostsConstantNumberOfStatements() {
+        long statements = countStatements(() -> productRepository.searchCards("product", PageRequest.of(0, 25)));
+
+        assertTrue(statements <= 2, "Expected at most 2 statements but was " + statements);
+    }
+
+    @Test
+    void productCardUsesMainImage() {
+        Page<ProductCardResponse> page = productRepository.findAvailableCards(PageRequest.of(0, 30));
+
+        assertEquals(30, page.getNumberOfElements());
+        assertTrue(page.getContent().stream().allMatch(card -> card.getMainImageUrl().endsWith("-main.jpg")));
+        assertTrue(page.getContent().stream().allMatch(ProductCardResponse::getInStock));
+    }
+
+    @Test
+    void categorySnapshotIsOnlyRebuiltWhenCountsCanChange() {
+        CategorySnapshotCache cache = new CategorySnapshotCache(categoryRepository, productRepository);
+        CategorySnapshot built = cache.get();
+        assertEquals(30, built.getCategory(category.getCategoryId()).getProductCount());
+
+        // Stock, rating and image updates leave the counts alone
+        cache.onProductChanged(new ProductChangedEvent(1L, ProductChangedEvent.ChangeType.UPDATED));
+        assertSame(built, cache.get());
+
+        cache.onProductChanged(new ProductChangedEvent(1L, ProductChangedEvent.ChangeType.RECATEGORIZED));
+        assertNotSame(built, cache.get());
+    }
+
+    @Test
+    void concurrentReadersOfAnEmptyCategoryCacheShareOneRebuild() throws Exception {
+        int readers = 8;
+        CategorySnapshotCache cache = new CategorySnapshotCache(categoryRepository, productRepository);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CategorySnapshot>> snapshots = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                snapshots.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get();
+                }));
+            }
+            start.countDown();
+            for (Future<CategorySnapshot> snapshot : snapshots) {
+                assertSame(snapshots.get(0).get(), snapshot.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // count query + category query, once for all readers
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    // Runs the query and returns the number of prepared statements
+    private long countStatements(PageQuery query) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<ProductCardResponse> page = query.run();
+        assertTrue(page.getNumberOfElements() > 0);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        Page<ProductCardResponse> run();
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Admin;
+import com.example.ecodb.Model.Category;
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Model.User;
+import com.example.ecodb.exception.BadRequestException;
+import com.example.ecodb.inventory.InventoryReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checkouts commit for real here, so the test manages its own transactions and data
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductStockConcurrencyTests {
+
+    private static final int INITIAL_STOCK = 50;
+    private static final int CHECKOUTS = 200;
+    private static final Long HOLDING_CUSTOMER = 1L;
+    private static final Long BUYING_CUSTOMER = 2L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InventoryHoldRepository inventoryHoldRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        // One transaction, so the admin is saved against a managed user
+        product = new TransactionTemplate(transactionManager).execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .firstName("Stock")
+                    .lastName("Admin")
+                    .email("stock-admin@example.com")
+                    .password("secret")
+                    .phone("1234567890")
+                    .role(User.Role.ROLE_ADMIN)
+                    .build());
+            Admin admin = adminRepository.save(Admin.builder().user(user).isActive(true).build());
+            Category category = categoryRepository.save(Category.builder().categoryName("Flash sale").build());
+
+            return productRepository.save(Product.builder()
+                    .productName("Limited edition")
+                    .price(99.0)
+                    .quantityInStock(INITIAL_STOCK)
+                    .admin(admin)
+                    .category(category)
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryHoldRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        adminRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void parallelCheckoutsOfTheSameProductNeverOversell() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> checkouts = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            checkouts.add(executor.submit(() -> {
+                start.await();
+                // Mirrors checkout: a short line rolls the whole transaction back
+                boolean placed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    List<Long> shortProductIds = productRepository.decrementStock(Map.of(product.getProductId(), 1));
+                    if (!shortProductIds.isEmpty()) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    return true;
+                }));
+                (placed ? succeeded : rejected).incrementAndGet();
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> checkout : checkouts) {
+            checkout.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int remaining = productRepository.findById(product.getProductId()).orElseThrow().getQuantityInStock();
+        assertEquals(INITIAL_STOCK, succeeded.get());
+        assertEquals(CHECKOUTS - INITIAL_STOCK, rejected.get());
+        assertEquals(0, remaining);
+    }
+
+    @Test
+    void shortLineLeavesOtherLinesUntouchedAfterRollback() {
+        Product other = productRepository.save(Product.builder()
+                .productName("Plenty")
+                .price(5.0)
+                .quantityInStock(10)
+                .admin(product.getAdmin())
+                .category(product.getCategory())
+                .build());
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Long> shortProductIds = transactionTemplate.execute(status -> {
+            List<Long> result = productRepository.decrementStock(Map.of(
+                    other.getProductId(), 3,
+                    product.getProductId(), INITIAL_STOCK + 1));
+            status.setRollbackOnly();
+            return result;
+        });
+
+        assertEquals(List.of(product.getProductId()), shortProductIds);
+        assertEquals(10, productRepository.findById(other.getProductId()).orElseThrow().getQuantityInStock());
+        assertEquals(INITIAL_STOCK, productRepository.findById(product.getProductId()).orElseThrow().getQuantityInStock());
+    }
+
+    @Test
+    void stockHeldForOtherCartsIsNotSold() {
+        InventoryReservationService reservations = reservationService(Duration.ofMinutes(15));
+        reservations.hold(product.getProductId(), HOLDING_CUSTOMER, INITIAL_STOCK - 5, INITIAL_STOCK);
+
+        // The buyer cannot even put more than the unheld stock in the cart
+        assertThrows(BadRequestException.class,
+                () -> reservations.hold(product.getProductId(), BUYING_CUSTOMER, 6, INITIAL_STOCK));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Map<Long, Integer> reserved = reservations.reservedByOthers(List.of(product.getProductId()), BUYING_CUSTOMER);
+        List<Long> tooMany = transactionTemplate.execute(status ->
+                productRepository.decrementStock(Map.of(product.getProductId(), 6), reserved));
+        List<Long> fits = transactionTemplate.execute(status ->
+                productRepository.decrementStock(Map.of(product.getProductId(), 5), reserved));
+
+        assertEquals(Map.of(product.getProductId(), INITIAL_STOCK - 5), reserved);
+        assertEquals(List.of(product.getProductId()), tooMany);
+        assertTrue(fits.isEmpty());
+        assertEquals(INITIAL_STOCK - 5, productRepository.findById(product.getProductId()).orElseThrow().getQuantityInStock());
+
+        // The holder's own hold does not count against them
+        assertEquals(Map.of(product.getProductId(), 0),
+                reservations.reservedByOthers(List.of(product.getProductId()), HOLDING_CUSTOMER));
+    }
+
+    @Test
+    void expiredHoldsAreSweptAndNoLongerReserved() throws InterruptedException {
+        InventoryReservationService reservations = reservationService(Duration.ofMillis(50));
+        reservations.hold(product.getProductId(), HOLDING_CUSTOMER, INITIAL_STOCK, INITIAL_STOCK);
+        assertThrows(BadRequestException.class,
+                () -> reservations.hold(product.getProductId(), BUYING_CUSTOMER, 1, INITIAL_STOCK));
+
+        Thread.sleep(100);
+        reservations.sweepExpiredHolds();
+
+        assertTrue(reservations.reservedByOthers(List.of(product.getProductId()), BUYING_CUSTOMER).isEmpty());
+        reservations.hold(product.getProductId(), BUYING_CUSTOMER, 1, INITIAL_STOCK);
+    }
+
+    @Test
+    void holdsArePersistedAndRestoredAfterRestart() {
+        InventoryReservationService before = reservationService(Duration.ofMinutes(15));
+        before.hold(product.getProductId(), HOLDING_CUSTOMER, 7, INITIAL_STOCK);
+        before.persistHolds();
+        assertEquals(1, inventoryHoldRepository.count());
+
+        InventoryReservationService after = reservationService(Duration.ofMinutes(15));
+        after.restoreHolds();
+        assertEquals(Map.of(product.getProductId(), 7),
+                after.reservedByOthers(List.of(product.getProductId()), BUYING_CUSTOMER));
+
+        // A release is written through on the next persist
+        after.release(product.getProductId(), HOLDING_CUSTOMER);
+        after.persistHolds();
+        assertEquals(0, inventoryHoldRepository.count());
+    }
+
+    @Test
+    void holdChangedByARolledBackCartUpdateIsPutBack() {
+        InventoryReservationService reservations = reservationService(Duration.ofMinutes(15));
+        reservations.hold(product.getProductId(), HOLDING_CUSTOMER, 3, INITIAL_STOCK);
+
+        // The cart item save fails after the hold was moved
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            reservations.hold(product.getProductId(), HOLDING_CUSTOMER, 20, INITIAL_STOCK);
+            throw new IllegalStateException("cart item save failed");
+        }));
+        assertEquals(Map.of(product.getProductId(), 3),
+                reservations.reservedByOthers(List.of(product.getProductId()), BUYING_CUSTOMER));
+
+        // A first hold that rolls back leaves nothing held
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            reservations.hold(product.getProductId(), BUYING_CUSTOMER, 5, INITIAL_STOCK);
+            status.setRollbackOnly();
+        });
+        assertEquals(Map.of(product.getProductId(), 0),
+                reservations.reservedByOthers(List.of(product.getProductId()), HOLDING_CUSTOMER));
+    }
+
+    private InventoryReservationService reservationService(Duration holdTtl) {
+        return new InventoryReservationService(inventoryHoldRepository, transactionManager, holdTtl);
+    }
+}
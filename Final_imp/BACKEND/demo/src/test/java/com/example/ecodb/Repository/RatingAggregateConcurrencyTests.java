@@ -0,0 +1,187 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.Admin;
+import com.example.ecodb.Model.Category;
+import com.example.ecodb.Model.Customer;
+import com.example.ecodb.Model.Product;
+import com.example.ecodb.Model.ProductReview;
+import com.example.ecodb.Model.User;
+import com.example.ecodb.readmodel.RatingAggregateReconciler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reconciling locks and commits per product, so the test manages its own transactions and data
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RatingAggregateConcurrencyTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductReviewRepository productReviewRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private RatingAggregateReconciler reconciler;
+    private Product product;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        reconciler = new RatingAggregateReconciler(productRepository, productReviewRepository,
+                eventPublisher, transactionManager);
+
+        // One transaction, so the admin and customer are saved against managed users
+        transactionTemplate.executeWithoutResult(status -> {
+            User adminUser = userRepository.save(User.builder()
+                    .firstName("Rating")
+                    .lastName("Admin")
+                    .email("rating-admin@example.com")
+                    .password("secret")
+                    .phone("1234567890")
+                    .role(User.Role.ROLE_ADMIN)
+                    .build());
+            Admin admin = adminRepository.save(Admin.builder().user(adminUser).isActive(true).build());
+            Category category = categoryRepository.save(Category.builder().categoryName("Reviewed").build());
+            User customerUser = userRepository.save(User.builder()
+                    .firstName("Rating")
+                    .lastName("Customer")
+                    .email("rating-customer@example.com")
+                    .password("secret")
+                    .phone("0987654321")
+                    .role(User.Role.ROLE_Customer)
+                    .build());
+            customer = customerRepository.save(Customer.builder().user(customerUser).build());
+
+            product = productRepository.save(Product.builder()
+                    .productName("Reviewed product")
+                    .price(25.0)
+                    .quantityInStock(10)
+                    .admin(admin)
+                    .category(category)
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        productReviewRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        customerRepository.deleteAll();
+        adminRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void aggregatesThatPredateTheColumnsAreBackfilled() {
+        transactionTemplate.executeWithoutResult(status -> {
+            saveReview(4, true);
+            saveReview(2, false);
+            Product stored = productRepository.findById(product.getProductId()).orElseThrow();
+            stored.setRatingSum(null);
+            stored.setRatingCount(null);
+            stored.setRecommendedCount(null);
+        });
+        assertEquals(1, productRepository.findProductIdsWithStaleRatingAggregates(0L, Limit.of(10)).size());
+
+        reconciler.backfill();
+
+        Product backfilled = productRepository.findById(product.getProductId()).orElseThrow();
+        assertEquals(6L, backfilled.getRatingSum());
+        assertEquals(2L, backfilled.getRatingCount());
+        assertEquals(1L, backfilled.getRecommendedCount());
+        assertTrue(productRepository.findProductIdsWithStaleRatingAggregates(0L, Limit.of(10)).isEmpty());
+    }
+
+    @Test
+    void reviewCommittedWhileReconcilingIsNotLost() throws Exception {
+        CountDownLatch adjusted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // A review write that holds the product row until it is told to commit
+            Future<?> review = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                saveReview(5, true);
+                productRepository.adjustRatingAggregates(product.getProductId(), 5, 1, 1);
+                adjusted.countDown();
+                try {
+                    commit.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(adjusted.await(5, TimeUnit.SECONDS));
+
+            // The reconcile waits for the row and then counts the committed review
+            Thread releaser = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                commit.countDown();
+            });
+            releaser.start();
+            assertFalse(reconciler.reconcile(product.getProductId()));
+            review.get(5, TimeUnit.SECONDS);
+            releaser.join();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Product reconciled = productRepository.findById(product.getProductId()).orElseThrow();
+        assertEquals(5L, reconciled.getRatingSum());
+        assertEquals(1L, reconciled.getRatingCount());
+        assertEquals(1L, reconciled.getRecommendedCount());
+    }
+
+    private void saveReview(int rating, boolean recommended) {
+        productReviewRepository.save(ProductReview.builder()
+                .title("Review")
+                .reviewText("Rated " + rating)
+                .rating(rating)
+                .recommended(recommended)
+                .customer(customer)
+                .product(productRepository.getReferenceById(product.getProductId()))
+                .build());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ecodb.Repository;
+
+import com.example.ecodb.Model.RevokedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class RevokedTokenRepositoryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        persist("expired", now.minusHours(2), now.minusMinutes(1));
+        persist("old-revocation", now.minusHours(2), now.plusHours(1));
+        persist("new-revocation", now.minusSeconds(5), now.plusHours(1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void onlyUnexpiredRevocationsAreLoaded() {
+        assertEquals(List.of("new-revocation", "old-revocation"), tokenIds(revokedTokenRepository.findByExpiresAtAfter(now)));
+    }
+
+    @Test
+    void refreshPicksUpRecentRevocations() {
+        List<RevokedToken> recent = revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(now.minusMinutes(1), now);
+
+        assertEquals(List.of("new-revocation"), tokenIds(recent));
+    }
+
+    @Test
+    void expiredRevocationsArePurged() {
+        assertEquals(1, revokedTokenRepository.deleteExpired(now));
+        assertEquals(2, revokedTokenRepository.count());
+    }
+
+    private void persist(String tokenId, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        entityManager.persist(RevokedToken.builder()
+                .tokenId(tokenId)
+                .userId(1L)
+                .revokedAt(revokedAt)
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    private static List<String> tokenIds(List<RevokedToken> tokens) {
+        return tokens.stream().map(RevokedToken::getTokenId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ecodb.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderAnalyticsTests {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 1, 0, 0);
+    // Far enough ahead that no range below reaches the live tail
+    private static final LocalDateTime NO_TAIL = DAY.plusYears(1);
+
+    @Test
+    void wholeDaysAreReadFromDailyBuckets() {
+        assertEquals(List.of("DAY[2025-03-01T00:00, 2025-03-04T00:00)"),
+                plan(DAY, DAY.plusDays(3).minusNanos(1), NO_TAIL));
+    }
+
+    @Test
+    void partialHoursAtTheEdgesAreReadLive() {
+        LocalDateTime start = DAY.withHour(10).withMinute(30);
+        LocalDateTime end = DAY.plusDays(2).withHour(5).withMinute(15);
+
+        assertEquals(List.of(
+                        "LIVE[2025-03-01T10:30, 2025-03-01T11:00)",
+                        "LIVE[2025-03-03T05:00, 2025-03-03T05:15:00.000000001)",
+                        "DAY[2025-03-02T00:00, 2025-03-03T00:00)",
+                        "HOUR[2025-03-01T11:00, 2025-03-02T00:00)",
+                        "HOUR[2025-03-03T00:00, 2025-03-03T05:00)"),
+                plan(start, end, NO_TAIL));
+    }
+
+    @Test
+    void rangeWithinOneDayUsesOnlyHourlyBuckets() {
+        assertEquals(List.of("HOUR[2025-03-01T10:00, 2025-03-01T14:00)"),
+                plan(DAY.withHour(10), DAY.withHour(14).minusNanos(1), NO_TAIL));
+    }
+
+    @Test
+    void rangeWithinOneHourIsReadLive() {
+        assertEquals(List.of("LIVE[2025-03-01T10:05, 2025-03-01T10:50:00.000000001)"),
+                plan(DAY.withHour(10).withMinute(5), DAY.withHour(10).withMinute(50), NO_TAIL));
+    }
+
+    @Test
+    void liveTailIsReadFromTheOrdersTable() {
+        LocalDateTime tailStart = DAY.plusDays(1).withHour(9);
+
+        assertEquals(List.of(
+                        "LIVE[2025-03-02T09:00, 2025-03-02T10:00)",
+                        "DAY[2025-03-01T00:00, 2025-03-02T00:00)",
+                        "HOUR[2025-03-02T00:00, 2025-03-02T09:00)"),
+                plan(DAY, DAY.plusDays(1).withHour(10).minusNanos(1), tailStart));
+        assertEquals(List.of("LIVE[2025-03-02T09:30, 2025-03-02T10:00)"),
+                plan(tailStart.withMinute(30), tailStart.plusHours(1).minusNanos(1), tailStart));
+    }
+
+    @Test
+    void emptyRangeHasNoSegments() {
+        assertTrue(plan(DAY.plusDays(1), DAY, NO_TAIL).isEmpty());
+    }
+
+    private static List<String> plan(LocalDateTime start, LocalDateTime end, LocalDateTime tailStart) {
+        return OrderAnalytics.plan(start, end, tailStart).stream()
+                .map(OrderAnalytics.Segment::toString)
+                .collect(Collectors.toList());
+    }
+}
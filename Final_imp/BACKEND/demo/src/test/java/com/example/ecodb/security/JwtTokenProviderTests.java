@@ -0,0 +1,60 @@
+package com.example.ecodb.security;
+
+import com.example.ecodb.Model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtTokenProviderTests {
+
+    private static final String SECRET = "test-secret-that-is-at-least-32-characters-long";
+
+    private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(SECRET, 3_600_000L, 100L);
+
+    @Test
+    void repeatedTokenIsAnsweredFromTheCache() {
+        String token = tokenFor(jwtTokenProvider, 7L);
+
+        UserPrincipal first = jwtTokenProvider.getPrincipal(token);
+        UserPrincipal second = jwtTokenProvider.getPrincipal(token);
+
+        // Verification builds a new principal, so the same instance means the token was not verified again
+        assertEquals(7L, first.getUserId());
+        assertSame(first, second);
+        assertNotSame(first, jwtTokenProvider.getPrincipal(tokenFor(jwtTokenProvider, 8L)));
+    }
+
+    @Test
+    void tokenWithBadSignatureIsRejectedEveryTime() {
+        JwtTokenProvider otherServer = new JwtTokenProvider("another-secret-that-is-at-least-32-characters", 3_600_000L, 100L);
+        String forged = tokenFor(otherServer, 7L);
+
+        // A cached rejection would come back as null instead of failing again
+        assertThrows(SignatureException.class, () -> jwtTokenProvider.getPrincipal(forged));
+        assertThrows(SignatureException.class, () -> jwtTokenProvider.getPrincipal(forged));
+    }
+
+    @Test
+    void malformedAndExpiredTokensAreRejectedEveryTime() {
+        JwtTokenProvider expiring = new JwtTokenProvider(SECRET, -1_000L, 100L);
+        String expired = tokenFor(expiring, 7L);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenProvider.getPrincipal(expired));
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenProvider.getPrincipal(expired));
+        assertThrows(JwtException.class, () -> jwtTokenProvider.getPrincipal("not.a.token"));
+        assertThrows(JwtException.class, () -> jwtTokenProvider.getPrincipal("not.a.token"));
+    }
+
+    private static String tokenFor(JwtTokenProvider provider, Long userId) {
+        UserPrincipal principal = new UserPrincipal(userId, "customer@example.com", User.Role.ROLE_Customer,
+                userId, null, 0, null, null, null);
+        return provider.generateToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}